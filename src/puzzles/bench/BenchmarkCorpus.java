@@ -0,0 +1,107 @@
+package puzzles.bench;
+
+import puzzles.jam.model.JamConfig;
+import puzzles.jam.model.JamLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The checked-in puzzles the benchmarks run on, read from the data directory:
+ * <ul>
+ *     <li>{@code jam/corpus.txt}: Jam puzzle files with their optimal number of single-cell moves and of whole
+ *     slides</li>
+ *     <li>{@code strings/pairs.txt}: start and end words for Strings</li>
+ *     <li>{@code crossing/sizes.txt}: pup and wolf counts for Crossing</li>
+ * </ul>
+ *
+ * @author John West (jrw2936)
+ */
+public class BenchmarkCorpus {
+    private final Map<String, JamConfig> jamBoards = new LinkedHashMap<>();
+    private final Map<String, Integer> jamMoves = new LinkedHashMap<>();
+    private final Map<String, Integer> jamSlides = new LinkedHashMap<>();
+    private final List<String[]> stringPairs = new ArrayList<>();
+    private final List<int[]> crossingSizes = new ArrayList<>();
+
+    /**
+     * Reads the corpus from a data directory.
+     *
+     * @param dataDir Directory containing the jam, strings and crossing folders
+     * @throws IOException If a corpus file cannot be read
+     */
+    public BenchmarkCorpus(Path dataDir) throws IOException {
+        for (String line : Files.readAllLines(dataDir.resolve("jam").resolve("corpus.txt"))) {
+            String[] fields = line.trim().split("\\s+");
+            if (fields.length == 3) {
+                jamBoards.put(fields[0], JamLoader.read(dataDir.resolve("jam").resolve(fields[0])));
+                jamMoves.put(fields[0], Integer.parseInt(fields[1]));
+                jamSlides.put(fields[0], Integer.parseInt(fields[2]));
+            }
+        }
+        for (String line : Files.readAllLines(dataDir.resolve("strings").resolve("pairs.txt"))) {
+            String[] fields = line.trim().split("\\s+");
+            if (fields.length == 2) {
+                stringPairs.add(fields);
+            }
+        }
+        for (String line : Files.readAllLines(dataDir.resolve("crossing").resolve("sizes.txt"))) {
+            String[] fields = line.trim().split("\\s+");
+            if (fields.length == 2) {
+                crossingSizes.add(new int[]{Integer.parseInt(fields[0]), Integer.parseInt(fields[1])});
+            }
+        }
+    }
+
+    /**
+     * Returns the Jam boards by file name, easiest first.
+     *
+     * @return The Jam boards
+     */
+    public Map<String, JamConfig> getJamBoards() {
+        return this.jamBoards;
+    }
+
+    /**
+     * Returns the optimal number of single-cell moves of a Jam board.
+     *
+     * @param name File name of the board
+     * @return The optimal number of moves
+     */
+    public int getJamMoves(String name) {
+        return this.jamMoves.get(name);
+    }
+
+    /**
+     * Returns the optimal number of whole slides of a Jam board.
+     *
+     * @param name File name of the board
+     * @return The optimal number of moves when any slide counts as one
+     */
+    public int getJamSlides(String name) {
+        return this.jamSlides.get(name);
+    }
+
+    /**
+     * Returns the start and end words of the Strings puzzles.
+     *
+     * @return The word pairs
+     */
+    public List<String[]> getStringPairs() {
+        return this.stringPairs;
+    }
+
+    /**
+     * Returns the pup and wolf counts of the Crossing puzzles.
+     *
+     * @return The sizes
+     */
+    public List<int[]> getCrossingSizes() {
+        return this.crossingSizes;
+    }
+}
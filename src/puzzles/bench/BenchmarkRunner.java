@@ -0,0 +1,359 @@
+package puzzles.bench;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Small throughput benchmark harness in the style of JMH. Each benchmark runs a number of timed warmup iterations,
+ * whose results are discarded, followed by timed measurement iterations. Besides operations per second, every
+ * measurement records the bytes allocated per operation by the benchmark thread and the garbage collections that
+ * happened, like JMH's {@code -prof gc}. Results can be written as JSON in the layout JMH uses, so two runs can be
+ * diffed with the same tools.
+ *
+ * @author John West (jrw2936)
+ */
+public class BenchmarkRunner {
+    /** Confidence level of the reported score error, the one JMH uses. */
+    private static final double CONFIDENCE = 0.999;
+
+    /** Target of every operation result, so the JIT cannot remove the work that produced it. */
+    private static volatile long sink;
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationMillis;
+    private final Pattern filter;
+    private final List<Result> results = new ArrayList<>();
+
+    /**
+     * An operation to measure. The returned value, such as a hash or a collection size, is consumed by the runner
+     * so that no boxing shows up in the allocation results.
+     */
+    public interface Operation {
+        long run() throws Exception;
+    }
+
+    /**
+     * Measured result of one benchmark.
+     *
+     * @param benchmark Name of the benchmark
+     * @param params Parameters the benchmark ran with
+     * @param scores Operations per second of each measurement iteration
+     * @param bytesPerOp Bytes allocated per operation, or -1 if the JVM does not track them
+     * @param gcCount Garbage collections during measurement
+     * @param gcMillis Time spent in garbage collection during measurement
+     */
+    public record Result(String benchmark, Map<String, String> params, double[] scores, double bytesPerOp,
+                         long gcCount, long gcMillis) {
+        /**
+         * Returns the mean operations per second.
+         *
+         * @return Mean score
+         */
+        public double score() {
+            double sum = 0;
+            for (double score : scores) {
+                sum += score;
+            }
+            return sum / scores.length;
+        }
+
+        /**
+         * Returns the half-width of the 99.9% confidence interval of the mean, computed as JMH does: the Student's t
+         * quantile for n - 1 degrees of freedom times the standard error of the mean.
+         *
+         * @return Score error, NaN with fewer than three measurements as in JMH
+         */
+        public double scoreError() {
+            int n = scores.length;
+            if (n <= 2) {
+                return Double.NaN;
+            }
+            double mean = score();
+            double squares = 0;
+            for (double score : scores) {
+                squares += (score - mean) * (score - mean);
+            }
+            return studentT(1 - (1 - CONFIDENCE) / 2, n - 1) * Math.sqrt(squares / (n - 1)) / Math.sqrt(n);
+        }
+    }
+
+    /**
+     * Constructor for a runner.
+     *
+     * @param warmupIterations Number of warmup iterations per benchmark
+     * @param measurementIterations Number of measurement iterations per benchmark
+     * @param iterationMillis Duration of each iteration
+     * @param filter Regular expression a benchmark name must contain to run, or null to run all
+     */
+    public BenchmarkRunner(int warmupIterations, int measurementIterations, long iterationMillis, String filter) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationMillis = iterationMillis;
+        this.filter = filter == null ? null : Pattern.compile(filter);
+    }
+
+    /**
+     * Runs a benchmark unless it is excluded by the filter, printing and recording its result.
+     *
+     * @param benchmark Name of the benchmark
+     * @param params Parameters shown with the result, such as the puzzle file
+     * @param operation The operation to measure
+     * @throws Exception If the operation fails
+     */
+    public void run(String benchmark, Map<String, String> params, Operation operation) throws Exception {
+        if (filter != null && !filter.matcher(benchmark).find()) {
+            return;
+        }
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(operation);
+        }
+        double[] scores = new double[measurementIterations];
+        long operations = 0;
+        long gcCount = -gcCount();
+        long gcMillis = -gcMillis();
+        long allocated = -allocatedBytes();
+        for (int i = 0; i < measurementIterations; i++) {
+            long start = System.nanoTime();
+            long count = iteration(operation);
+            scores[i] = count / ((System.nanoTime() - start) / 1e9);
+            operations += count;
+        }
+        allocated += allocatedBytes();
+        gcCount += gcCount();
+        gcMillis += gcMillis();
+        double bytesPerOp = allocatedBytes() < 0 ? -1 : (double) allocated / operations;
+        Result result = new Result(benchmark, new LinkedHashMap<>(params), scores, bytesPerOp, gcCount, gcMillis);
+        results.add(result);
+        System.out.printf("%-32s %-34s %14.1f +- %10.1f ops/s %12.1f B/op %4d gc%n", benchmark, params.values(),
+                result.score(), result.scoreError(), bytesPerOp, gcCount);
+    }
+
+    /**
+     * Calls the operation repeatedly for one iteration.
+     *
+     * @param operation The operation to measure
+     * @return Number of calls completed
+     * @throws Exception If the operation fails
+     */
+    private long iteration(Operation operation) throws Exception {
+        long end = System.nanoTime() + iterationMillis * 1_000_000L;
+        long count = 0;
+        long consumed = 0;
+        do {
+            consumed ^= operation.run();
+            count++;
+        } while (System.nanoTime() - end < 0);
+        sink = consumed;
+        return count;
+    }
+
+    /**
+     * Returns the bytes allocated so far by the current thread.
+     *
+     * @return Allocated bytes, or -1 if the JVM does not track them
+     */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of garbage collections so far, over all collectors.
+     *
+     * @return Collection count
+     */
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * Returns the time spent in garbage collection so far, over all collectors.
+     *
+     * @return Collection time in milliseconds
+     */
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, bean.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * Returns the results recorded so far.
+     *
+     * @return The results in the order the benchmarks ran
+     */
+    public List<Result> getResults() {
+        return this.results;
+    }
+
+    /**
+     * Writes the results as a JSON array in the layout of JMH's JSON output.
+     *
+     * @param file File to write
+     * @throws IOException If the file cannot be written
+     */
+    public void writeJson(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println("[");
+            for (int i = 0; i < results.size(); i++) {
+                Result result = results.get(i);
+                out.println("    {");
+                out.println("        \"benchmark\" : " + quote(result.benchmark()) + ",");
+                out.println("        \"mode\" : \"thrpt\",");
+                out.println("        \"warmupIterations\" : " + warmupIterations + ",");
+                out.println("        \"measurementIterations\" : " + measurementIterations + ",");
+                out.println("        \"measurementTime\" : \"" + iterationMillis + " ms\",");
+                out.println("        \"params\" : {");
+                int param = 0;
+                for (Map.Entry<String, String> entry : result.params().entrySet()) {
+                    out.println("            " + quote(entry.getKey()) + " : " + quote(entry.getValue())
+                            + (++param < result.params().size() ? "," : ""));
+                }
+                out.println("        },");
+                out.println("        \"primaryMetric\" : {");
+                out.println("            \"score\" : " + number(result.score()) + ",");
+                out.println("            \"scoreError\" : " + number(result.scoreError()) + ",");
+                out.println("            \"scoreUnit\" : \"ops/s\",");
+                StringBuilder raw = new StringBuilder();
+                for (double score : result.scores()) {
+                    raw.append(raw.length() == 0 ? "" : ", ").append(number(score));
+                }
+                out.println("            \"rawData\" : [ [ " + raw + " ] ]");
+                out.println("        },");
+                out.println("        \"secondaryMetrics\" : {");
+                out.println("            \"\u00b7gc.alloc.rate.norm\" : { \"score\" : " + number(result.bytesPerOp())
+                        + ", \"scoreUnit\" : \"B/op\" },");
+                out.println("            \"\u00b7gc.count\" : { \"score\" : " + result.gcCount()
+                        + ", \"scoreUnit\" : \"counts\" },");
+                out.println("            \"\u00b7gc.time\" : { \"score\" : " + result.gcMillis()
+                        + ", \"scoreUnit\" : \"ms\" }");
+                out.println("        }");
+                out.println("    }" + (i < results.size() - 1 ? "," : ""));
+            }
+            out.println("]");
+        }
+    }
+
+    /**
+     * Returns a JSON string literal.
+     *
+     * @param text The text
+     * @return The quoted and escaped text
+     */
+    private static String quote(String text) {
+        return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * Returns a JSON number, or null for values JSON cannot represent.
+     *
+     * @param value The value
+     * @return The formatted value
+     */
+    private static String number(double value) {
+        return Double.isFinite(value) ? Double.toString(value) : "null";
+    }
+
+    /**
+     * Returns a quantile of Student's t distribution, by bisection on its distribution function.
+     *
+     * @param p Probability, above one half
+     * @param degrees Degrees of freedom, at least two
+     * @return The value below which a t-distributed variable falls with probability p
+     */
+    private static double studentT(double p, int degrees) {
+        double low = 0;
+        double high = 1e4;
+        for (int i = 0; i < 200 && high - low > 1e-12 * high; i++) {
+            double middle = (low + high) / 2;
+            if (1 - 0.5 * incompleteBeta(degrees / (degrees + middle * middle), degrees / 2.0, 0.5) < p) {
+                low = middle;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    /**
+     * Returns the regularized incomplete beta function, by its continued fraction.
+     *
+     * @param x Upper limit of integration, from 0 to 1
+     * @param a First shape parameter
+     * @param b Second shape parameter
+     * @return I_x(a, b)
+     */
+    private static double incompleteBeta(double x, double a, double b) {
+        if (x <= 0 || x >= 1) {
+            return x <= 0 ? 0 : 1;
+        }
+        if (x > (a + 1) / (a + b + 2)) {
+            return 1 - incompleteBeta(1 - x, b, a);
+        }
+        double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b) + a * Math.log(x) + b * Math.log(1 - x));
+        double c = 1;
+        double d = nonZero(1 - (a + b) * x / (a + 1));
+        double fraction = d;
+        for (int m = 1; m <= 300; m++) {
+            double even = m * (b - m) * x / ((a + 2 * m - 1) * (a + 2 * m));
+            d = nonZero(1 + even * d);
+            c = 1 + even / c;
+            fraction *= c * d;
+            double odd = -(a + m) * (a + b + m) * x / ((a + 2 * m) * (a + 2 * m + 1));
+            d = nonZero(1 + odd * d);
+            c = 1 + odd / c;
+            fraction *= c * d;
+            if (Math.abs(c * d - 1) < 1e-15) {
+                break;
+            }
+        }
+        return front * fraction / a;
+    }
+
+    /**
+     * Returns the reciprocal of a term of the continued fraction, kept away from a division by zero.
+     *
+     * @param value The term
+     * @return 1 / value
+     */
+    private static double nonZero(double value) {
+        return 1 / (Math.abs(value) < 1e-300 ? 1e-300 : value);
+    }
+
+    /**
+     * Returns the natural logarithm of the gamma function, by the Lanczos approximation.
+     *
+     * @param x A positive value
+     * @return Logarithm of Gamma(x)
+     */
+    private static double logGamma(double x) {
+        double[] coefficients = {76.18009172947146, -86.50532032941677, 24.01409824083091, -1.231739572450155,
+                0.1208650973866179e-2, -0.5395239384953e-5};
+        double sum = 1.000000000190015;
+        for (int i = 0; i < coefficients.length; i++) {
+            sum += coefficients[i] / (x + i + 1);
+        }
+        double t = x + 5.5;
+        return (x + 0.5) * Math.log(t) - t + Math.log(2.5066282746310005 * sum / x);
+    }
+}
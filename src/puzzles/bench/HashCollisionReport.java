@@ -0,0 +1,65 @@
+package puzzles.bench;
+
+import puzzles.common.solver.Configuration;
+import puzzles.jam.model.JamBoard;
+import puzzles.jam.model.JamConfig;
+import puzzles.jam.model.PackedJamConfig;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports how often distinct Jam configurations share a hashcode, over the whole cluster of every board in the
+ * corpus. The sum of the car hashes that configurations used to hash with is compared with the Zobrist hash, and
+ * both with the number of collisions expected from an ideal 32-bit hash. Run from the project directory with
+ * <pre>
+ *     java puzzles.bench.HashCollisionReport [dataDir]
+ * </pre>
+ *
+ * @author John West (jrw2936)
+ */
+public class HashCollisionReport {
+
+    /**
+     * Prints the collision report.
+     *
+     * @param args Command line arguments
+     * @throws Exception If the corpus cannot be read
+     */
+    public static void main(String[] args) throws Exception {
+        BenchmarkCorpus corpus = new BenchmarkCorpus(Path.of(args.length > 0 ? args[0] : "data"));
+        System.out.printf("%-12s %8s %12s %13s %10s %10s %11s%n", "board", "states", "cars.colls", "zobrist.colls",
+                "expected", "cars.max", "zobrist.max");
+        for (Map.Entry<String, JamConfig> entry : corpus.getJamBoards().entrySet()) {
+            JamConfig config = entry.getValue();
+            List<Configuration> cluster = SolverBenchmarks.cluster(JamBoard.of(config).pack(config));
+            Map<Integer, Integer> cars = new HashMap<>();
+            Map<Integer, Integer> zobrist = new HashMap<>();
+            for (Configuration state : cluster) {
+                JamConfig unpacked = ((PackedJamConfig) state).toJamConfig();
+                cars.merge(unpacked.getCars().hashCode(), 1, Integer::sum);
+                zobrist.merge(unpacked.hashCode(), 1, Integer::sum);
+            }
+            double n = cluster.size();
+            System.out.printf("%-12s %8d %12d %13d %10.2f %10d %11d%n", entry.getKey(), cluster.size(),
+                    cluster.size() - cars.size(), cluster.size() - zobrist.size(), n * (n - 1) / 2 / 0x1p32,
+                    largest(cars), largest(zobrist));
+        }
+    }
+
+    /**
+     * Returns the number of configurations sharing the most common hashcode.
+     *
+     * @param counts Number of configurations per hashcode
+     * @return Size of the largest group
+     */
+    private static int largest(Map<Integer, Integer> counts) {
+        int largest = 0;
+        for (int count : counts.values()) {
+            largest = Math.max(largest, count);
+        }
+        return largest;
+    }
+}
@@ -0,0 +1,223 @@
+package puzzles.bench;
+
+import puzzles.common.solver.MoveBuffer;
+import puzzles.jam.model.Car;
+import puzzles.jam.model.Coordinates;
+import puzzles.jam.model.Exit;
+import puzzles.jam.model.JamBoard;
+import puzzles.jam.model.JamConfig;
+import puzzles.jam.model.JamCorpus;
+import puzzles.jam.model.JamLoader;
+import puzzles.jam.model.JamSearchState;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic Jam boards of any size for stress tests. The car 'X' starts at the exit, walls and cars are
+ * dropped on free cells at random while the whole lane of 'X' is kept clear, and the cars are then scrambled by a
+ * random walk of legal moves that drifts 'X' away from the exit. Every move can be undone, so the generated board is
+ * always solvable, in at most as many moves as the walk took. Run with
+ * <pre>
+ *     java puzzles.bench.JamBoardGenerator rows cols cars walls scramble seed file [left|right|top|bottom] [count]
+ * </pre>
+ * With a count, that many boards are generated from consecutive seeds and written to a binary
+ * {@link JamCorpus} instead of a puzzle file.
+ *
+ * @author John West (jrw2936)
+ */
+public class JamBoardGenerator {
+    /** Number of random placements tried per car before the board is considered full. */
+    private static final int ATTEMPTS = 1000;
+
+    /** One in this many scrambling moves slides 'X' away from the exit whenever it can. */
+    private static final int DRIFT = 4;
+
+    /**
+     * Writes a generated board to a file.
+     *
+     * @param args Command line arguments
+     * @throws Exception If the file cannot be written
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 7 || args.length > 9) {
+            System.out.println("Usage: java JamBoardGenerator rows cols cars walls scramble seed file " +
+                    "[left|right|top|bottom] [count]");
+            return;
+        }
+        Exit exit = Exit.RIGHT;
+        int count = 0;
+        for (int i = 7; i < args.length; i++) {
+            if (Character.isDigit(args[i].charAt(0))) {
+                count = Integer.parseInt(args[i]);
+            }
+            else {
+                exit = Exit.valueOf(args[i].toUpperCase());
+            }
+        }
+        int rows = Integer.parseInt(args[0]);
+        int cols = Integer.parseInt(args[1]);
+        long seed = Long.parseLong(args[5]);
+        if (count > 0) {
+            List<JamConfig> configs = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                configs.add(generate(rows, cols, Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+                        Integer.parseInt(args[4]), exit, seed + i));
+            }
+            JamCorpus.write(configs, Path.of(args[6]));
+            System.out.println("Wrote " + count + " " + rows + "x" + cols + " boards to " + args[6]);
+        }
+        else {
+            JamConfig config = generate(rows, cols, Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+                    Integer.parseInt(args[4]), exit, seed);
+            JamLoader.write(config, Path.of(args[6]));
+            System.out.println("Wrote " + rows + "x" + cols + " board with " + config.getCars().size() +
+                    " cars and " + config.getWalls().size() + " walls to " + args[6]);
+        }
+    }
+
+    /**
+     * Generates a board.
+     *
+     * @param rows Number of rows, at most 64
+     * @param cols Number of columns, at most 64
+     * @param numCars Number of cars besides 'X'; fewer are placed if the board fills up
+     * @param numWalls Number of wall cells
+     * @param scramble Number of random moves made from the solved arrangement
+     * @param exit Edge the car 'X' has to reach
+     * @param seed Seed of the random generator, so boards can be generated again
+     * @return The generated starting configuration
+     */
+    public static JamConfig generate(int rows, int cols, int numCars, int numWalls, int scramble, Exit exit,
+                                     long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        boolean[][] occupied = new boolean[rows][cols];
+        ArrayList<Car> cars = new ArrayList<>();
+        boolean horizontal = exit.isHorizontal();
+        int lane = horizontal ? rows / 2 : cols / 2;
+        int laneLength = horizontal ? cols : rows;
+        int start = exit.isForward() ? laneLength - 2 : 0;
+        for (int j = 0; j < laneLength; j++) {
+            if (horizontal) {
+                occupied[lane][j] = true;
+            }
+            else {
+                occupied[j][lane] = true;
+            }
+        }
+        cars.add(place('X', horizontal, lane, start, 2, occupied));
+
+        List<Coordinates> walls = new ArrayList<>();
+        for (int attempt = 0; walls.size() < numWalls && attempt < numWalls * ATTEMPTS; attempt++) {
+            int row = random.nextInt(rows);
+            int col = random.nextInt(cols);
+            if (!occupied[row][col]) {
+                occupied[row][col] = true;
+                walls.add(new Coordinates(row, col));
+            }
+        }
+
+        for (int i = 0; i < numCars; i++) {
+            for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+                boolean carHorizontal = random.nextBoolean();
+                int length = random.nextInt(4) == 0 ? 3 : 2;
+                int carLane = random.nextInt(carHorizontal ? rows : cols);
+                int carLaneLength = carHorizontal ? cols : rows;
+                if (length > carLaneLength) {
+                    continue;
+                }
+                int offset = random.nextInt(carLaneLength - length + 1);
+                if (isFree(carHorizontal, carLane, offset, length, occupied)) {
+                    cars.add(place(name(i), carHorizontal, carLane, offset, length, occupied));
+                    break;
+                }
+            }
+        }
+
+        JamConfig solved = new JamConfig(rows, cols, cars.size(), cars, walls, exit);
+        JamSearchState state = new JamSearchState(JamBoard.of(solved).pack(solved));
+        MoveBuffer moves = new MoveBuffer();
+        int away = JamSearchState.move(0, exit.isForward() ? -1 : 1);
+        int undo = -1;
+        for (int i = 0; i < scramble; i++) {
+            state.generateMoves(moves);
+            if (moves.size() == 0) {
+                break;
+            }
+            int index = random.nextInt(moves.size());
+            if (moves.get(index) == undo && moves.size() > 1) {
+                index = (index + 1) % moves.size();
+            }
+            for (int j = 0; j < moves.size(); j++) {
+                if (moves.get(j) == away && random.nextInt(DRIFT) == 0) {
+                    index = j;
+                }
+            }
+            int move = moves.get(index);
+            state.apply(move);
+            undo = JamSearchState.move(JamSearchState.car(move), -JamSearchState.distance(move));
+        }
+        JamConfig scrambled = state.toJamConfig();
+        return new JamConfig(rows, cols, scrambled.getCars().size(), new ArrayList<>(scrambled.getCars()), walls,
+                exit);
+    }
+
+    /**
+     * Returns the name of a generated car: letters other than 'X', digits and printable ASCII symbols other than
+     * the empty and wall cells, then characters beyond ASCII.
+     *
+     * @param index Index of the car, not counting 'X'
+     * @return Character representation of the car
+     */
+    private static char name(int index) {
+        String ascii = "ABCDEFGHIJKLMNOPQRSTUVWYZabcdefghijklmnopqrstuvwxyz0123456789!\"$%&'()*+,-/:;<=>?@[\\]^_`{|}~";
+        return index < ascii.length() ? ascii.charAt(index) : (char) ('\u0100' + index - ascii.length());
+    }
+
+    /**
+     * Returns whether every cell a car would cover is free.
+     *
+     * @param horizontal Whether the car is horizontal
+     * @param lane Row of a horizontal car, column of a vertical car
+     * @param offset Position of the car along its lane
+     * @param length Length of the car
+     * @param occupied Cells already covered
+     * @return Whether the car fits
+     */
+    private static boolean isFree(boolean horizontal, int lane, int offset, int length, boolean[][] occupied) {
+        for (int j = offset; j < offset + length; j++) {
+            if (horizontal ? occupied[lane][j] : occupied[j][lane]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a car and marks its cells as covered.
+     *
+     * @param name Character representation of the car
+     * @param horizontal Whether the car is horizontal
+     * @param lane Row of a horizontal car, column of a vertical car
+     * @param offset Position of the car along its lane
+     * @param length Length of the car
+     * @param occupied Cells already covered, updated
+     * @return The car
+     */
+    private static Car place(char name, boolean horizontal, int lane, int offset, int length,
+                             boolean[][] occupied) {
+        for (int j = offset; j < offset + length; j++) {
+            if (horizontal) {
+                occupied[lane][j] = true;
+            }
+            else {
+                occupied[j][lane] = true;
+            }
+        }
+        int last = offset + length - 1;
+        return horizontal ? new Car(name, new Coordinates(lane, offset), new Coordinates(lane, last)) :
+                new Car(name, new Coordinates(offset, lane), new Coordinates(last, lane));
+    }
+}
@@ -0,0 +1,382 @@
+package puzzles.bench;
+
+import puzzles.common.solver.*;
+import puzzles.crossing.CrossingConfig;
+import puzzles.crossing.CrossingHeuristic;
+import puzzles.crossing.CrossingSolver;
+import puzzles.jam.model.Car;
+import puzzles.jam.model.Exit;
+import puzzles.jam.model.JamBitboard;
+import puzzles.jam.model.JamBoard;
+import puzzles.jam.model.JamConfig;
+import puzzles.jam.model.JamSearchState;
+import puzzles.jam.model.MoveMetric;
+import puzzles.jam.model.PackedJamConfig;
+import puzzles.jam.solver.JamHeuristic;
+import puzzles.strings.PackedStringsConfig;
+import puzzles.strings.PackedStringsHeuristic;
+import puzzles.strings.StringsCanonicalizer;
+import puzzles.strings.StringsConfig;
+import puzzles.strings.StringsHeuristic;
+
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Benchmarks of the solver hot paths over the checked-in corpus: neighbor generation, hashing and equality,
+ * visited-set insertion and full solves. Run from the project directory with
+ * <pre>
+ *     java puzzles.bench.SolverBenchmarks [-d dataDir] [-o results.json] [-f filter] [-wi n] [-i n] [-r millis]
+ * </pre>
+ * where the filter is a regular expression matched against benchmark names.
+ *
+ * @author John West (jrw2936)
+ */
+public class SolverBenchmarks {
+    /** Depth of the tree walks comparing in-place moves with immutable neighbors. */
+    private static final int WALK_DEPTH = 4;
+
+    /** Side, number of cars and number of walls of the generated large Jam boards. */
+    private static final int[][] GENERATED = {{12, 30, 6}, {20, 80, 20}, {30, 150, 45}};
+
+    /** Number of scrambling moves of the generated boards. */
+    private static final int SCRAMBLE = 40;
+
+    /** Word pairs too long for the breadth-first engines: one packed in a long, one stored in bytes. */
+    private static final String[][] LONG_WORDS = {{"ABCDEFGHIJKL", "NOPQRSTUVWXY"},
+            {"RUSHHOURPUZZLESOLVER", "ABCDEFGHIJKLMNOPQRST"}};
+
+    /**
+     * Runs the benchmarks selected on the command line.
+     *
+     * @param args Command line arguments
+     * @throws Exception If the corpus cannot be read or a benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+        Path dataDir = Path.of("data");
+        Path output = null;
+        String filter = null;
+        int warmup = 3;
+        int iterations = 5;
+        long millis = 1000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-d" -> dataDir = Path.of(args[i + 1]);
+                case "-o" -> output = Path.of(args[i + 1]);
+                case "-f" -> filter = args[i + 1];
+                case "-wi" -> warmup = Integer.parseInt(args[i + 1]);
+                case "-i" -> iterations = Integer.parseInt(args[i + 1]);
+                case "-r" -> millis = Long.parseLong(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        BenchmarkCorpus corpus = new BenchmarkCorpus(dataDir);
+        BenchmarkRunner runner = new BenchmarkRunner(warmup, iterations, millis, filter);
+        jamBenchmarks(runner, corpus);
+        generatedBenchmarks(runner);
+        stringsBenchmarks(runner, corpus);
+        crossingBenchmarks(runner, corpus);
+        if (output != null) {
+            runner.writeJson(output);
+            System.out.println("Results written to " + output);
+        }
+    }
+
+    /**
+     * Benchmarks of the Jam puzzle, for both the regular and the packed configurations.
+     *
+     * @param runner The runner
+     * @param corpus The corpus
+     * @throws Exception If a benchmark fails
+     */
+    private static void jamBenchmarks(BenchmarkRunner runner, BenchmarkCorpus corpus) throws Exception {
+        for (Map.Entry<String, JamConfig> entry : corpus.getJamBoards().entrySet()) {
+            Map<String, String> params = Map.of("board", entry.getKey());
+            JamConfig config = entry.getValue();
+            JamConfig copy = new JamConfig(config.getRows(), config.getCols(), config.getNumCars(),
+                    new ArrayList<>(config.getCars()));
+            JamBoard board = JamBoard.of(config);
+            PackedJamConfig packed = board.pack(config);
+            PackedJamConfig packedCopy = board.pack(copy);
+            List<Configuration> cluster = cluster(packed);
+            List<Configuration> legacyCluster = new ArrayList<>(cluster.size());
+            long[] codes = new long[cluster.size()];
+            for (int i = 0; i < cluster.size(); i++) {
+                legacyCluster.add(((PackedJamConfig) cluster.get(i)).toJamConfig());
+                codes[i] = ((PackedJamConfig) cluster.get(i)).encode();
+            }
+            int moves = corpus.getJamMoves(entry.getKey());
+            int slides = corpus.getJamSlides(entry.getKey());
+            PackedJamConfig slide = JamBoard.of(config, MoveMetric.SLIDE).pack(config);
+
+            runner.run("jam.neighbors.legacy", params, () -> config.getNeighbors().size());
+            runner.run("jam.neighbors.packed", params, () -> packed.getNeighbors().size());
+            runner.run("jam.neighbors.slide", params, () -> slide.getNeighbors().size());
+            JamSearchState state = new JamSearchState(packed);
+            MoveBuffer[] buffers = new MoveBuffer[WALK_DEPTH];
+            for (int i = 0; i < WALK_DEPTH; i++) {
+                buffers[i] = new MoveBuffer();
+            }
+            runner.run("jam.walk.packed", params, () -> walk(packed, WALK_DEPTH));
+            runner.run("jam.walk.inplace", params, () -> walk(state, buffers, WALK_DEPTH));
+            if (gridRanges(config) != bitboardRanges(config)) {
+                throw new IllegalStateException("Slide ranges disagree on " + entry.getKey());
+            }
+            runner.run("jam.ranges.grid", params, () -> gridRanges(config));
+            runner.run("jam.ranges.bitboard", params, () -> bitboardRanges(config));
+            runner.run("jam.hashCode.legacy", params, config::hashCode);
+            runner.run("jam.hashCode.cars", params, () -> config.getCars().hashCode());
+            runner.run("jam.hashCode.packed", params, packed::hashCode);
+            runner.run("jam.equals.legacy", params, () -> config.equals(copy) ? 1 : 0);
+            runner.run("jam.equals.packed", params, () -> packed.equals(packedCopy) ? 1 : 0);
+            runner.run("car.hashCode", params, () -> {
+                long hash = 0;
+                for (Car car : config.getCars()) {
+                    hash += car.hashCode();
+                }
+                return hash;
+            });
+            runner.run("visited.hashmap.legacy", params, () -> insert(legacyCluster));
+            runner.run("visited.hashmap.packed", params, () -> insert(cluster));
+            runner.run("visited.longtable", params, () -> {
+                LongHashTable table = new LongHashTable();
+                for (long code : codes) {
+                    table.putIfAbsent(code, code);
+                }
+                return table.size();
+            });
+            runner.run("visited.compressed", params, () -> {
+                CompressedLongSet set = new CompressedLongSet();
+                for (long code : codes) {
+                    set.add(code);
+                }
+                return set.size();
+            });
+            runner.run("solve.jam.bfs.legacy", params, () -> solved(Solver.solve(config), moves));
+            runner.run("solve.jam.bfs.packed", params, () -> solved(Solver.solve(packed), moves));
+            runner.run("solve.jam.astar", params,
+                    () -> solved(new AStarSolver<>(new JamHeuristic()).solve(packed), moves));
+            runner.run("solve.jam.bfs.slide", params, () -> solved(Solver.solve(slide), slides));
+            runner.run("solve.jam.astar.slide", params,
+                    () -> solved(new AStarSolver<>(new JamHeuristic()).solve(slide), slides));
+        }
+    }
+
+    /**
+     * Benchmarks of synthetic Jam boards with walls and many cars, showing how the packed engine scales with the
+     * size of the board.
+     *
+     * @param runner The runner
+     * @throws Exception If a benchmark fails
+     */
+    private static void generatedBenchmarks(BenchmarkRunner runner) throws Exception {
+        for (int[] size : GENERATED) {
+            JamConfig config = JamBoardGenerator.generate(size[0], size[0], size[1], size[2], SCRAMBLE, Exit.RIGHT,
+                    size[0]);
+            Map<String, String> params = Map.of("board", size[0] + "x" + size[0] + "/" + config.getCars().size());
+            PackedJamConfig packed = JamBoard.of(config).pack(config);
+            runner.run("jam.neighbors.generated", params, () -> packed.getNeighbors().size());
+            runner.run("solve.jam.generated.astar", params,
+                    () -> new AStarSolver<>(new JamHeuristic()).solve(packed).size());
+        }
+    }
+
+    /**
+     * Benchmarks of the Strings puzzle.
+     *
+     * @param runner The runner
+     * @param corpus The corpus
+     * @throws Exception If a benchmark fails
+     */
+    private static void stringsBenchmarks(BenchmarkRunner runner, BenchmarkCorpus corpus) throws Exception {
+        for (String[] pair : corpus.getStringPairs()) {
+            Map<String, String> params = Map.of("words", pair[0] + "-" + pair[1]);
+            StringsConfig config = new StringsConfig(pair[0], pair[1]);
+            int moves = new StringsHeuristic().estimate(config);
+            runner.run("strings.neighbors", params, () -> config.getNeighbors().size());
+            runner.run("solve.strings.bfs", params, () -> solved(Solver.solve(config), moves));
+            runner.run("solve.strings.bidirectional", params,
+                    () -> solved(new BidirectionalSolver().solve(config), moves));
+            runner.run("solve.strings.astar", params,
+                    () -> solved(new AStarSolver<>(new StringsHeuristic()).solve(config), moves));
+            runner.run("solve.strings.canonical", params,
+                    () -> solved(new CanonicalSolver<>(new StringsCanonicalizer()).solve(config), moves));
+            PackedStringsConfig packed = PackedStringsConfig.of(pair[0], pair[1]);
+            runner.run("strings.neighbors.packed", params, () -> packed.getNeighbors().size());
+            runner.run("solve.strings.packed.astar", params,
+                    () -> solved(new AStarSolver<>(new PackedStringsHeuristic()).solve(packed), moves));
+        }
+        for (String[] pair : LONG_WORDS) {
+            Map<String, String> params = Map.of("words", pair[0] + "-" + pair[1]);
+            PackedStringsConfig packed = PackedStringsConfig.of(pair[0], pair[1]);
+            int moves = packed.distance();
+            runner.run("solve.strings.packed.astar", params,
+                    () -> solved(new AStarSolver<>(new PackedStringsHeuristic()).solve(packed), moves));
+        }
+    }
+
+    /**
+     * Benchmarks of the Crossing puzzle.
+     *
+     * @param runner The runner
+     * @param corpus The corpus
+     * @throws Exception If a benchmark fails
+     */
+    private static void crossingBenchmarks(BenchmarkRunner runner, BenchmarkCorpus corpus) throws Exception {
+        for (int[] size : corpus.getCrossingSizes()) {
+            Map<String, String> params = Map.of("animals", size[0] + "-" + size[1]);
+            CrossingConfig config = new CrossingConfig(size[0], size[1], 0, 0, "left");
+            Collection<Configuration> reference = Solver.solve(config);
+            int moves = reference == null ? -1 : reference.size() - 1;
+            runner.run("crossing.neighbors", params, () -> config.getNeighbors().size());
+            runner.run("solve.crossing.bfs", params, () -> solved(Solver.solve(config), moves));
+            runner.run("solve.crossing.astar", params,
+                    () -> solved(new AStarSolver<>(new CrossingHeuristic()).solve(config), moves));
+            runner.run("solve.crossing.dense", params,
+                    () -> solved(new CrossingSolver(size[0], size[1]).solve(), moves));
+        }
+    }
+
+    /**
+     * Returns every configuration reachable from the given one, in breadth-first order.
+     *
+     * @param config The initial configuration
+     * @return The reachable configurations
+     */
+    static List<Configuration> cluster(Configuration config) {
+        List<Configuration> cluster = new ArrayList<>();
+        Set<Configuration> seen = new HashSet<>();
+        seen.add(config);
+        cluster.add(config);
+        for (int i = 0; i < cluster.size(); i++) {
+            for (Configuration neighbor : cluster.get(i).getNeighbors()) {
+                if (seen.add(neighbor)) {
+                    cluster.add(neighbor);
+                }
+            }
+        }
+        return cluster;
+    }
+
+    /**
+     * Adds up how far every car can slide either way, walking the cells of the character grid.
+     *
+     * @param config The configuration
+     * @return Total number of free cells next to the cars
+     */
+    private static long gridRanges(JamConfig config) {
+        char[][] grid = config.getGrid();
+        long total = 0;
+        for (Car car : config.getCars()) {
+            int dRow = car.isHorizontal() ? 0 : 1;
+            int dCol = car.isHorizontal() ? 1 : 0;
+            int row = car.getStart().row() - dRow;
+            int col = car.getStart().col() - dCol;
+            while (row >= 0 && col >= 0 && grid[row][col] == '.') {
+                total++;
+                row -= dRow;
+                col -= dCol;
+            }
+            row = car.getEnd().row() + dRow;
+            col = car.getEnd().col() + dCol;
+            while (row < config.getRows() && col < config.getCols() && grid[row][col] == '.') {
+                total++;
+                row += dRow;
+                col += dCol;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Adds up how far every car can slide either way, reading whole lanes from the bitboard occupancy.
+     *
+     * @param config The configuration
+     * @return Total number of free cells next to the cars
+     */
+    private static long bitboardRanges(JamConfig config) {
+        JamBitboard occupancy = config.getOccupancy();
+        long total = 0;
+        for (Car car : config.getCars()) {
+            if (car.isHorizontal()) {
+                total += occupancy.freeBefore(true, car.getStart().row(), car.getStart().col());
+                total += occupancy.freeAfter(true, car.getStart().row(), car.getEnd().col());
+            }
+            else {
+                total += occupancy.freeBefore(false, car.getStart().col(), car.getStart().row());
+                total += occupancy.freeAfter(false, car.getStart().col(), car.getEnd().row());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Counts the leaves of the move tree below a configuration, creating a configuration per node.
+     *
+     * @param config The root of the tree
+     * @param depth Number of moves to walk
+     * @return Number of leaves
+     */
+    private static long walk(Configuration config, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long leaves = 0;
+        for (Configuration neighbor : config.getNeighbors()) {
+            leaves += walk(neighbor, depth - 1);
+        }
+        return leaves;
+    }
+
+    /**
+     * Counts the leaves of the move tree below a state, applying and undoing moves in place.
+     *
+     * @param state The root of the tree, restored on return
+     * @param buffers One move buffer per level
+     * @param depth Number of moves to walk
+     * @return Number of leaves
+     */
+    private static long walk(SearchState state, MoveBuffer[] buffers, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveBuffer moves = buffers[depth - 1];
+        state.generateMoves(moves);
+        long leaves = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            state.apply(moves.get(i));
+            leaves += walk(state, buffers, depth - 1);
+            state.undo(moves.get(i));
+        }
+        return leaves;
+    }
+
+    /**
+     * Inserts configurations into a fresh visited map, as the solver does.
+     *
+     * @param configs The configurations
+     * @return Size of the map
+     */
+    private static long insert(List<Configuration> configs) {
+        HashMap<Configuration, Configuration> visited = new HashMap<>();
+        for (Configuration config : configs) {
+            visited.putIfAbsent(config, config);
+        }
+        return visited.size();
+    }
+
+    /**
+     * Checks that a solve found a path of the expected length.
+     *
+     * @param path The path returned by the solver
+     * @param moves Expected number of moves, or -1 if the puzzle has no solution
+     * @return Number of moves on the path
+     */
+    private static long solved(Collection<Configuration> path, int moves) {
+        int found = path == null ? -1 : path.size() - 1;
+        if (found != moves) {
+            throw new IllegalStateException("Expected " + moves + " moves but found " + found);
+        }
+        return found;
+    }
+}
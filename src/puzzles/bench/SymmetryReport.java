@@ -0,0 +1,101 @@
+package puzzles.bench;
+
+import puzzles.common.solver.CanonicalSolver;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.Solver;
+import puzzles.common.solver.SolverStats;
+import puzzles.jam.model.JamBoard;
+import puzzles.jam.model.JamConfig;
+import puzzles.jam.model.PackedJamConfig;
+import puzzles.jam.solver.JamCanonicalizer;
+import puzzles.strings.StringsCanonicalizer;
+import puzzles.strings.StringsConfig;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reports how many states canonicalization saves on the corpus. Every Jam board and Strings pair is solved by plain
+ * breadth-first search and by the canonical solver, and the unique states of both are compared. Both searches stop
+ * at the first solution, so the counts also differ by how much of the last level each expanded first. For Jam the
+ * whole cluster of the start is compared with its representatives, and so are the solved placements the hard-puzzle
+ * generator seeds its clusters from. Crossing is left out: its only symmetry, swapping the banks, exchanges the start
+ * and the goal, so no state has a smaller representative. Run from the project directory with
+ * <pre>
+ *     java puzzles.bench.SymmetryReport [dataDir]
+ * </pre>
+ *
+ * @author John West (jrw2936)
+ */
+public class SymmetryReport {
+
+    /**
+     * Prints the symmetry report.
+     *
+     * @param args Command line arguments
+     * @throws Exception If the corpus cannot be read
+     */
+    public static void main(String[] args) throws Exception {
+        BenchmarkCorpus corpus = new BenchmarkCorpus(Path.of(args.length > 0 ? args[0] : "data"));
+        System.out.printf("%-22s %6s %12s %12s %10s%n", "puzzle", "moves", "bfs.states", "canon.states",
+                "reduction");
+        for (Map.Entry<String, JamConfig> entry : corpus.getJamBoards().entrySet()) {
+            JamConfig config = entry.getValue();
+            PackedJamConfig start = JamBoard.of(config).pack(config);
+            SolverStats stats = new SolverStats();
+            Solver.solve(start, stats);
+            report("jam " + entry.getKey(), stats, new SolverStats(), new CanonicalSolver<>(new JamCanonicalizer()),
+                    start);
+        }
+        for (String[] pair : corpus.getStringPairs()) {
+            StringsConfig config = new StringsConfig(pair[0], pair[1]);
+            SolverStats stats = new SolverStats();
+            Solver.solve(config, stats);
+            report("strings " + pair[0] + "-" + pair[1], stats, new SolverStats(),
+                    new CanonicalSolver<>(new StringsCanonicalizer()), config);
+        }
+
+        System.out.println();
+        System.out.printf("%-22s %10s %10s %12s %12s %10s%n", "puzzle", "cluster", "canonical", "placements",
+                "canonical", "reduction");
+        for (Map.Entry<String, JamConfig> entry : corpus.getJamBoards().entrySet()) {
+            JamBoard board = JamBoard.of(entry.getValue());
+            Set<PackedJamConfig> representatives = new HashSet<>();
+            List<Configuration> cluster = SolverBenchmarks.cluster(board.pack(entry.getValue()));
+            for (Configuration config : cluster) {
+                representatives.add(board.canonical((PackedJamConfig) config));
+            }
+            int canonical = 0;
+            int placements = 0;
+            for (PackedJamConfig solved : board.solvedStates()) {
+                placements++;
+                if (board.canonical(solved) == solved) {
+                    canonical++;
+                }
+            }
+            System.out.printf("%-22s %10d %10d %12d %12d %9.2fx%n", "jam " + entry.getKey(), cluster.size(),
+                    representatives.size(), placements, canonical, (double) placements / canonical);
+        }
+    }
+
+    /**
+     * Solves a puzzle canonically and prints one line comparing it with a plain solve.
+     *
+     * @param name Name of the puzzle
+     * @param plain Statistics of the plain solve
+     * @param stats Statistics to fill in with the canonical solve
+     * @param solver The canonical solver
+     * @param config Initial configuration of the puzzle
+     * @param <C> the type of configuration being solved
+     */
+    private static <C extends Configuration> void report(String name, SolverStats plain, SolverStats stats,
+                                                         CanonicalSolver<C> solver, C config) {
+        Collection<Configuration> path = solver.solve(config, stats);
+        System.out.printf("%-22s %6d %12d %12d %9.2fx%n", name, path == null ? -1 : path.size() - 1,
+                plain.getUnique(), stats.getUnique(), (double) plain.getUnique() / stats.getUnique());
+    }
+}
@@ -0,0 +1,183 @@
+package puzzles.bench;
+
+import puzzles.common.solver.CompressedLongSet;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.EncodedConfiguration;
+import puzzles.common.solver.LongHashTable;
+import puzzles.jam.model.JamBoard;
+import puzzles.jam.model.JamConfig;
+import puzzles.jam.model.PackedJamConfig;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Compares the compressed visited set with the primitive table of the solver on the whole cluster of every Jam
+ * board in the corpus. For each board it reports the memory per state of both, the time of a lookup of a visited
+ * state and of a state outside the cluster, and the time of a breadth-first enumeration of the cluster using each as
+ * its visited set. The table is measured as the solver uses it, with the predecessor stored next to every code.
+ * Run from the project directory with
+ * <pre>
+ *     java puzzles.bench.VisitedSetReport [dataDir]
+ * </pre>
+ *
+ * @author John West (jrw2936)
+ */
+public class VisitedSetReport {
+    /** Rounds of each measurement before the ones timed. */
+    private static final int WARMUP = 5;
+
+    /** Timed rounds of each measurement, of which the fastest is reported. */
+    private static final int ROUNDS = 10;
+
+    /** Count of codes found, kept so the lookups cannot be optimized away. */
+    private static long sink;
+
+    /**
+     * Prints the visited set report.
+     *
+     * @param args Command line arguments
+     * @throws Exception If the corpus cannot be read
+     */
+    public static void main(String[] args) throws Exception {
+        BenchmarkCorpus corpus = new BenchmarkCorpus(Path.of(args.length > 0 ? args[0] : "data"));
+        System.out.printf("%-12s %8s %10s %9s %5s %9s %9s %10s %9s %10s %8s%n", "board", "states", "table.bits",
+                "set.bits", "runs", "table.hit", "set.hit", "table.miss", "set.miss", "table.bfs", "set.bfs");
+        for (Map.Entry<String, JamConfig> entry : corpus.getJamBoards().entrySet()) {
+            JamConfig config = entry.getValue();
+            PackedJamConfig start = JamBoard.of(config).pack(config);
+            if (!start.hasCode()) {
+                continue;
+            }
+            long[] codes = SolverBenchmarks.cluster(start).stream()
+                    .mapToLong(state -> ((EncodedConfiguration) state).encode()).toArray();
+            LongHashTable table = new LongHashTable();
+            CompressedLongSet set = new CompressedLongSet();
+            for (long code : codes) {
+                table.putIfAbsent(code, code);
+                set.add(code);
+            }
+            long[] hits = shuffled(codes);
+            long[] misses = misses(codes, table);
+            System.out.printf("%-12s %8d %10.1f %9.1f %5d %7.1fns %7.1fns %8.1fns %7.1fns %8.2fms %6.2fms%n",
+                    entry.getKey(), codes.length, 2.0 * Long.SIZE * table.capacity() / table.size(),
+                    set.bitsPerCode(), set.runs(),
+                    nanosPer(hits, table::containsKey), nanosPer(hits, set::contains),
+                    nanosPer(misses, table::containsKey), nanosPer(misses, set::contains),
+                    bfs(start, () -> {
+                        LongHashTable visited = new LongHashTable();
+                        return code -> visited.putIfAbsent(code, code);
+                    }, codes.length) / 1e6,
+                    bfs(start, () -> new CompressedLongSet()::add, codes.length) / 1e6);
+        }
+    }
+
+    /**
+     * Returns the codes in a random order, so lookups do not follow the order they were added in.
+     *
+     * @param codes The codes
+     * @return A shuffled copy
+     */
+    private static long[] shuffled(long[] codes) {
+        long[] shuffled = codes.clone();
+        SplittableRandom random = new SplittableRandom(codes.length);
+        for (int i = shuffled.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long swap = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = swap;
+        }
+        return shuffled;
+    }
+
+    /**
+     * Returns as many codes as the cluster has, within its range but outside it.
+     *
+     * @param codes Codes of the cluster
+     * @param table Table holding them
+     * @return Codes of states not in the cluster
+     */
+    private static long[] misses(long[] codes, LongHashTable table) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long code : codes) {
+            min = Math.min(min, code);
+            max = Math.max(max, code);
+        }
+        long[] misses = new long[codes.length];
+        SplittableRandom random = new SplittableRandom(-codes.length);
+        for (int i = 0; i < misses.length; i++) {
+            long code;
+            do {
+                code = min + random.nextLong(max - min + 1);
+            } while (table.containsKey(code));
+            misses[i] = code;
+        }
+        return misses;
+    }
+
+    /**
+     * Times lookups of every code, keeping the fastest of several rounds.
+     *
+     * @param codes Codes to look up
+     * @param lookup The lookup
+     * @return Nanoseconds per lookup
+     */
+    private static double nanosPer(long[] codes, LongPredicate lookup) {
+        long best = Long.MAX_VALUE;
+        int found = 0;
+        for (int round = 0; round < WARMUP + ROUNDS; round++) {
+            long time = System.nanoTime();
+            for (long code : codes) {
+                if (lookup.test(code)) {
+                    found++;
+                }
+            }
+            time = System.nanoTime() - time;
+            if (round >= WARMUP) {
+                best = Math.min(best, time);
+            }
+        }
+        sink += found;
+        return (double) best / codes.length;
+    }
+
+    /**
+     * Times a breadth-first enumeration of a cluster over state codes, keeping the fastest of several rounds.
+     *
+     * @param start A state of the cluster
+     * @param visited Creates the add operation of a fresh visited set, true for codes not visited before
+     * @param size Number of states of the cluster
+     * @return Nanoseconds per enumeration
+     */
+    private static long bfs(PackedJamConfig start, Supplier<LongPredicate> visited, int size) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP + ROUNDS; round++) {
+            long time = System.nanoTime();
+            LongPredicate add = visited.get();
+            long[] queue = new long[size];
+            int tail = 0;
+            queue[tail++] = start.encode();
+            add.test(start.encode());
+            for (int head = 0; head < tail; head++) {
+                for (Configuration neighbor : start.decode(queue[head]).getNeighbors()) {
+                    long code = ((EncodedConfiguration) neighbor).encode();
+                    if (add.test(code)) {
+                        queue[tail++] = code;
+                    }
+                }
+            }
+            time = System.nanoTime() - time;
+            if (tail != size) {
+                throw new IllegalStateException("Enumerated " + tail + " of " + size + " states");
+            }
+            if (round >= WARMUP) {
+                best = Math.min(best, time);
+            }
+        }
+        return best;
+    }
+}
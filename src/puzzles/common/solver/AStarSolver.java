@@ -0,0 +1,93 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * Best-first solver ordering configurations by moves taken plus a heuristic estimate of moves remaining. The open
+ * list is a bucket queue over those integer costs. With an admissible heuristic the returned path is a shortest one;
+ * configurations reached again by a shorter path are reopened, so the heuristic does not need to be consistent.
+ *
+ * @param <C> the type of configuration being solved
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public class AStarSolver<C extends Configuration> {
+    private final Heuristic<C> heuristic;
+
+    /**
+     * Constructor for an A* solver using the given heuristic.
+     *
+     * @param heuristic Admissible estimate of the moves remaining
+     */
+    public AStarSolver(Heuristic<C> heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * @param config Initial configuration of the puzzle.
+     * @return The shortest path to a solution, or null if there is none.
+     */
+    public Collection<Configuration> solve(C config) {
+        return solve(config, new SolverStats());
+    }
+
+    /**
+     * @param config Initial configuration of the puzzle.
+     * @param stats Statistics filled in by this solve.
+     * @return The shortest path to a solution, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public Collection<Configuration> solve(C config, SolverStats stats) {
+        stats.start();
+        stats.generated(1);
+        HashMap<C, Integer> distances = new HashMap<>();
+        HashMap<C, C> predecessors = new HashMap<>();
+        BucketQueue<Entry<C>> open = new BucketQueue<>();
+        int estimate = heuristic.estimate(config);
+        if (estimate == Heuristic.UNSOLVABLE) {
+            stats.finish(1);
+            return null;
+        }
+        distances.put(config, 0);
+        predecessors.put(config, null);
+        open.add(estimate, new Entry<>(config, 0));
+        while (!open.isEmpty()) {
+            Entry<C> entry = open.remove();
+            if (entry.moves() > distances.get(entry.config())) {
+                continue;
+            }
+            if (entry.config().isSolution()) {
+                stats.finish(distances.size());
+                LinkedList<Configuration> path = new LinkedList<>();
+                for (C node = entry.config(); node != null; node = predecessors.get(node)) {
+                    path.addFirst(node);
+                }
+                return path;
+            }
+            int moves = entry.moves() + 1;
+            long time = System.nanoTime();
+            Collection<Configuration> neighbors = entry.config().getNeighbors();
+            stats.expanded(neighbors.size(), System.nanoTime() - time);
+            for (Configuration generated : neighbors) {
+                C neighbor = (C) generated;
+                Integer known = distances.get(neighbor);
+                if (known == null || moves < known) {
+                    estimate = heuristic.estimate(neighbor);
+                    if (estimate != Heuristic.UNSOLVABLE) {
+                        distances.put(neighbor, moves);
+                        predecessors.put(neighbor, entry.config());
+                        open.add(moves + estimate, new Entry<>(neighbor, moves));
+                    }
+                }
+            }
+            stats.frontier(open.size());
+        }
+        stats.finish(distances.size());
+        return null;
+    }
+
+    /**
+     * A configuration in the open list together with the number of moves it took to reach it.
+     */
+    private record Entry<C>(C config, int moves) {}
+}
@@ -0,0 +1,104 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * Breadth-first solver that searches forwards from the initial configuration and backwards from the goals at the
+ * same time, always expanding the smaller frontier by one level. The search stops as soon as a configuration is
+ * reached from both sides, and the two half-paths are spliced at that configuration.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public class BidirectionalSolver {
+    /**
+     * @param config Initial configuration of the puzzle.
+     * @return The shortest path to a solution, or null if there is none.
+     */
+    public Collection<Configuration> solve(ReversibleConfiguration config) {
+        return solve(config, new SolverStats());
+    }
+
+    /**
+     * @param config Initial configuration of the puzzle.
+     * @param stats Statistics filled in by this solve, including the configurations explored by each side.
+     * @return The shortest path to a solution, or null if there is none.
+     */
+    public Collection<Configuration> solve(ReversibleConfiguration config, SolverStats stats) {
+        stats.start();
+        HashMap<Configuration, Configuration> predecessors = new HashMap<>();
+        HashMap<Configuration, Configuration> successors = new HashMap<>();
+        List<Configuration> forward = new ArrayList<>();
+        List<Configuration> backward = new ArrayList<>();
+        predecessors.put(config, config);
+        forward.add(config);
+        stats.generated(1);
+        for (Configuration goal : config.getGoals()) {
+            stats.generated(1);
+            if (successors.putIfAbsent(goal, goal) == null) {
+                backward.add(goal);
+            }
+        }
+        Configuration meeting = successors.containsKey(config) ? config : null;
+        while (meeting == null && !forward.isEmpty() && !backward.isEmpty()) {
+            List<Configuration> next = new ArrayList<>();
+            if (forward.size() <= backward.size()) {
+                for (Configuration current : forward) {
+                    long time = System.nanoTime();
+                    Collection<Configuration> neighbors = current.getNeighbors();
+                    stats.expanded(neighbors.size(), System.nanoTime() - time);
+                    for (Configuration neighbor : neighbors) {
+                        if (predecessors.putIfAbsent(neighbor, current) == null) {
+                            next.add(neighbor);
+                            if (meeting == null && successors.containsKey(neighbor)) {
+                                meeting = neighbor;
+                            }
+                        }
+                    }
+                    if (meeting != null) {
+                        break;
+                    }
+                }
+                forward = next;
+                stats.frontier(forward.size() + backward.size());
+            }
+            else {
+                for (Configuration current : backward) {
+                    long time = System.nanoTime();
+                    Collection<Configuration> neighbors = ((ReversibleConfiguration) current).getPredecessors();
+                    stats.expanded(neighbors.size(), System.nanoTime() - time);
+                    for (Configuration neighbor : neighbors) {
+                        if (successors.putIfAbsent(neighbor, current) == null) {
+                            next.add(neighbor);
+                            if (meeting == null && predecessors.containsKey(neighbor)) {
+                                meeting = neighbor;
+                            }
+                        }
+                    }
+                    if (meeting != null) {
+                        break;
+                    }
+                }
+                backward = next;
+                stats.frontier(forward.size() + backward.size());
+            }
+        }
+        stats.explored(predecessors.size(), successors.size());
+        stats.finish(predecessors.size() + successors.size());
+        if (meeting == null) {
+            return null;
+        }
+        LinkedList<Configuration> path = new LinkedList<>();
+        Configuration node = meeting;
+        path.add(node);
+        while (!predecessors.get(node).equals(node)) {
+            node = predecessors.get(node);
+            path.addFirst(node);
+        }
+        node = meeting;
+        while (!successors.get(node).equals(node)) {
+            node = successors.get(node);
+            path.addLast(node);
+        }
+        return path;
+    }
+}
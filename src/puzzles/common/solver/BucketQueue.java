@@ -0,0 +1,77 @@
+package puzzles.common.solver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+/**
+ * Priority queue for small non-negative integer priorities, keeping one bucket per priority. Adding is constant
+ * time and removing only scans forward from the lowest non-empty bucket. Within a bucket the most recently added
+ * element is removed first.
+ *
+ * @param <E> the type of element in the queue
+ *
+ * @author John West (jrw2936)
+ */
+class BucketQueue<E> {
+    private final ArrayList<ArrayDeque<E>> buckets = new ArrayList<>();
+    private int lowest;
+    private int size;
+
+    /**
+     * Adds an element with the given priority.
+     *
+     * @param priority Non-negative priority, lower is removed first
+     * @param element The element
+     */
+    void add(int priority, E element) {
+        while (buckets.size() <= priority) {
+            buckets.add(new ArrayDeque<>());
+        }
+        buckets.get(priority).push(element);
+        if (size == 0 || priority < lowest) {
+            lowest = priority;
+        }
+        size++;
+    }
+
+    /**
+     * Returns the lowest priority currently in the queue. The queue must not be empty.
+     *
+     * @return The lowest priority
+     */
+    int lowestPriority() {
+        while (buckets.get(lowest).isEmpty()) {
+            lowest++;
+        }
+        return lowest;
+    }
+
+    /**
+     * Removes an element with the lowest priority. The queue must not be empty.
+     *
+     * @return The removed element
+     */
+    E remove() {
+        E element = buckets.get(lowestPriority()).pop();
+        size--;
+        return element;
+    }
+
+    /**
+     * Returns the number of elements in the queue.
+     *
+     * @return Number of elements
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns whether the queue is empty.
+     *
+     * @return Whether the queue holds no elements
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,26 @@
+package puzzles.common.solver;
+
+/**
+ * Flag that another thread can raise to ask a running solve to stop.
+ *
+ * @author John West (jrw2936)
+ */
+public class CancellationToken {
+    private volatile boolean cancelled;
+
+    /**
+     * Asks every solve holding this token to stop as soon as possible.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Returns whether cancellation has been requested.
+     *
+     * @return Whether the token was cancelled
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+}
@@ -0,0 +1,108 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * Breadth-first solver over canonical representatives. Every configuration is mapped to the representative of its
+ * symmetry class before the visited-set lookup, so symmetric configurations are stored and expanded once. The path
+ * found runs through representatives; it is mapped back to real moves from the initial configuration by following,
+ * at each step, the neighbor whose representative is the next one on the path. Such a neighbor always exists, since
+ * the symmetry mapping the current configuration onto its representative also maps the next move.
+ *
+ * @param <C> the type of configuration being solved
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public class CanonicalSolver<C extends Configuration> {
+    private final Canonicalizer<C> canonicalizer;
+
+    /**
+     * Constructor for a solver using the given canonicalization.
+     *
+     * @param canonicalizer Maps each configuration to its representative
+     */
+    public CanonicalSolver(Canonicalizer<C> canonicalizer) {
+        this.canonicalizer = canonicalizer;
+    }
+
+    /**
+     * @param config Initial configuration of the puzzle.
+     * @return The shortest path to a solution, or null if there is none.
+     */
+    public Collection<Configuration> solve(C config) {
+        return solve(config, new SolverStats());
+    }
+
+    /**
+     * @param config Initial configuration of the puzzle.
+     * @param stats Statistics filled in by this solve; the unique count is the number of representatives reached.
+     * @return The shortest path to a solution, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public Collection<Configuration> solve(C config, SolverStats stats) {
+        stats.start();
+        C start = canonicalizer.canonical(config);
+        Queue<C> queue = new ArrayDeque<>();
+        HashMap<C, C> predecessors = new HashMap<>();
+        queue.add(start);
+        predecessors.put(start, null);
+        stats.generated(1);
+        C solution = null;
+        while (!queue.isEmpty()) {
+            C current = queue.remove();
+            if (current.isSolution()) {
+                solution = current;
+                break;
+            }
+            long time = System.nanoTime();
+            Collection<Configuration> neighbors = current.getNeighbors();
+            stats.expanded(neighbors.size(), System.nanoTime() - time);
+            for (Configuration neighbor : neighbors) {
+                C canonical = canonicalizer.canonical((C) neighbor);
+                if (!predecessors.containsKey(canonical)) {
+                    predecessors.put(canonical, current);
+                    queue.add(canonical);
+                }
+            }
+            stats.frontier(queue.size());
+        }
+        stats.finish(predecessors.size());
+        if (solution == null) {
+            return null;
+        }
+        LinkedList<C> canonicalPath = new LinkedList<>();
+        for (C node = solution; node != null; node = predecessors.get(node)) {
+            canonicalPath.addFirst(node);
+        }
+        return lift(config, canonicalPath);
+    }
+
+    /**
+     * Maps a path through representatives back to a path of real moves.
+     *
+     * @param config Initial configuration of the puzzle
+     * @param canonicalPath Path through representatives, starting with the representative of the initial one
+     * @return The path of real configurations
+     */
+    @SuppressWarnings("unchecked")
+    private List<Configuration> lift(C config, List<C> canonicalPath) {
+        List<Configuration> path = new ArrayList<>(canonicalPath.size());
+        C current = config;
+        path.add(current);
+        for (C next : canonicalPath.subList(1, canonicalPath.size())) {
+            C step = null;
+            for (Configuration neighbor : current.getNeighbors()) {
+                if (canonicalizer.canonical((C) neighbor).equals(next)) {
+                    step = (C) neighbor;
+                    break;
+                }
+            }
+            if (step == null) {
+                throw new IllegalStateException("Canonicalization is not a symmetry of the puzzle: " + current);
+            }
+            current = step;
+            path.add(current);
+        }
+        return path;
+    }
+}
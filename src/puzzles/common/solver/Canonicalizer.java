@@ -0,0 +1,22 @@
+package puzzles.common.solver;
+
+/**
+ * An interface for mapping configurations to a canonical representative of their symmetry class. Two configurations
+ * belong to the same class when a symmetry of the puzzle maps one onto the other, a relabelling that maps moves to
+ * moves and solutions to solutions. Searching the representatives instead of the configurations then finds paths of
+ * the same length while storing each class only once.
+ *
+ * @param <C> the type of configuration being canonicalized
+ *
+ * @author John West (jrw2936)
+ */
+public interface Canonicalizer<C extends Configuration> {
+    /**
+     * Returns the representative of the symmetry class of a configuration. Every configuration of a class must map
+     * to the same representative, which must itself belong to the class.
+     *
+     * @param config The configuration
+     * @return Its representative, the configuration itself if it already is one
+     */
+    C canonical(C config);
+}
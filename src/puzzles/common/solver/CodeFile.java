@@ -0,0 +1,214 @@
+package puzzles.common.solver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A file of fixed-width state codes, eight big-endian bytes each. Files are written and read through memory-mapped
+ * windows of at most {@value #WINDOW} bytes, so they can be far larger than the heap and than a single mapped buffer.
+ * Only the window in use is referenced; earlier windows are unmapped once collected.
+ *
+ * @author John West (jrw2936)
+ */
+final class CodeFile {
+    /** Bytes mapped at a time. */
+    static final int WINDOW = 1 << 24;
+
+    /** Bytes of the first window a writer maps; each later window doubles up to {@value #WINDOW}. */
+    private static final int FIRST_WINDOW = 1 << 16;
+
+    /**
+     * Not instantiated; use {@link #create(Path)} and {@link #open(Path)}.
+     */
+    private CodeFile() {
+    }
+
+    /**
+     * Creates an empty code file, replacing any file of the same name.
+     *
+     * @param file The file
+     * @return A writer appending to the file
+     * @throws IOException If the file cannot be created
+     */
+    static Writer create(Path file) throws IOException {
+        return new Writer(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Opens a code file for reading.
+     *
+     * @param file The file
+     * @return A reader of the file
+     * @throws IOException If the file cannot be opened
+     */
+    static Reader open(Path file) throws IOException {
+        return new Reader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * Appends codes to a code file. The file grows a window at a time, starting small so that short files stay
+     * cheap, and is cut back to the codes written on close.
+     */
+    static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private MappedByteBuffer window;
+        private long count;
+
+        /**
+         * Constructor for a writer at the start of an empty file.
+         *
+         * @param channel Channel of the file, open for reading and writing
+         */
+        private Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Appends a code.
+         *
+         * @param code The code
+         * @throws IOException If the next window cannot be mapped
+         */
+        void add(long code) throws IOException {
+            if (window == null || !window.hasRemaining()) {
+                long position = count * Long.BYTES;
+                window = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                        Math.min(WINDOW, Math.max(FIRST_WINDOW, position)));
+            }
+            window.putLong(code);
+            count++;
+        }
+
+        /**
+         * Returns the number of codes written.
+         *
+         * @return Number of codes
+         */
+        long count() {
+            return this.count;
+        }
+
+        /**
+         * Returns the number of bytes written.
+         *
+         * @return Eight bytes per code
+         */
+        long bytes() {
+            return this.count * Long.BYTES;
+        }
+
+        /**
+         * Cuts the file back to the codes written and closes it.
+         *
+         * @throws IOException If the file cannot be truncated
+         */
+        @Override
+        public void close() throws IOException {
+            window = null;
+            try (channel) {
+                channel.truncate(bytes());
+            }
+        }
+    }
+
+    /**
+     * Reads codes of a code file by index. Sequential reads stay within one mapped window until they leave it.
+     */
+    static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private long windowEnd;
+        private long bytesRead;
+
+        /**
+         * Constructor for a reader of a whole file.
+         *
+         * @param channel Channel of the file, open for reading
+         * @throws IOException If the size of the file cannot be read
+         */
+        private Reader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size() / Long.BYTES;
+        }
+
+        /**
+         * Returns the number of codes in the file.
+         *
+         * @return Number of codes
+         */
+        long size() {
+            return this.size;
+        }
+
+        /**
+         * Returns a code of the file.
+         *
+         * @param index Position of the code
+         * @return The code
+         * @throws IOException If the window holding it cannot be mapped
+         */
+        long get(long index) throws IOException {
+            long position = index * Long.BYTES;
+            if (position < windowStart || position >= windowEnd) {
+                windowStart = position - position % WINDOW;
+                windowEnd = Math.min(windowStart + WINDOW, size * Long.BYTES);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+            }
+            bytesRead += Long.BYTES;
+            return window.getLong((int) (position - windowStart));
+        }
+
+        /**
+         * Returns whether the file holds a code, by binary search. The file must be sorted in ascending order.
+         *
+         * @param code The code
+         * @return Whether the code is in the file
+         * @throws IOException If a window cannot be mapped
+         */
+        boolean contains(long code) throws IOException {
+            long low = 0;
+            long high = size - 1;
+            while (low <= high) {
+                long middle = (low + high) >>> 1;
+                long found = get(middle);
+                if (found < code) {
+                    low = middle + 1;
+                }
+                else if (found > code) {
+                    high = middle - 1;
+                }
+                else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the number of bytes read so far.
+         *
+         * @return Eight bytes per code read
+         */
+        long bytesRead() {
+            return this.bytesRead;
+        }
+
+        /**
+         * Closes the file.
+         *
+         * @throws IOException If the file cannot be closed
+         */
+        @Override
+        public void close() throws IOException {
+            window = null;
+            channel.close();
+        }
+    }
+}
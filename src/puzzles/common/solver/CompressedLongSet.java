@@ -0,0 +1,454 @@
+package puzzles.common.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Set of long state codes kept in compressed form, for searches whose visited set would not fit in memory as a
+ * table. New codes go to a small open-addressing buffer. Once the buffer is full its codes are sorted and stored as a
+ * run in Elias-Fano form, which takes about 2 + log2(u / n) bits per code for n codes spread over a range of u: the
+ * low bits of every code are stored as they are, and the high bits as gaps in unary. Runs are merged like a binary
+ * counter, each new run absorbing the runs before it that are no larger, so there are at most logarithmically many
+ * runs and every code is re-encoded a logarithmic number of times. Merges stream from the runs into the encoder and
+ * never decompress a run into an array.
+ * <p>
+ * The buffer grows with the set, to a thirty-second of its size, so that small sets stay small and large sets are
+ * not merged too often.
+ *
+ * @author John West (jrw2936)
+ */
+public class CompressedLongSet {
+    /** Fewest codes the buffer holds. */
+    private static final int MIN_BUFFER = 256;
+
+    /** Most codes the buffer holds. */
+    private static final int MAX_BUFFER = 1 << 24;
+
+    /** Ratio of the size of the set to the number of codes the buffer holds. */
+    private static final int BUFFER_RATIO = 32;
+
+    /** Marker of a free slot of the buffer; the code 0 itself is kept in a flag. */
+    private static final long EMPTY = 0L;
+
+    private long[] buffer = new long[2 * MIN_BUFFER];
+    private int bufferBits = Integer.numberOfTrailingZeros(2 * MIN_BUFFER);
+    private int buffered;
+    private boolean hasZero;
+    private final List<EliasFano> runs = new ArrayList<>();
+    private long size;
+
+    /**
+     * Adds a code to the set.
+     *
+     * @param code The code
+     * @return Whether the code was not in the set yet
+     */
+    public boolean add(long code) {
+        if (contains(code)) {
+            return false;
+        }
+        if (code == EMPTY) {
+            hasZero = true;
+        }
+        else {
+            int slot = slot(code);
+            while (buffer[slot] != EMPTY) {
+                slot = (slot + 1) & (buffer.length - 1);
+            }
+            buffer[slot] = code;
+        }
+        buffered++;
+        size++;
+        if (buffered == buffer.length / 2) {
+            flush();
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether a code is in the set. The runs are searched from the largest, which holds most codes.
+     *
+     * @param code The code
+     * @return Whether the code was added before
+     */
+    public boolean contains(long code) {
+        if (code == EMPTY) {
+            if (hasZero) {
+                return true;
+            }
+        }
+        else {
+            for (int slot = slot(code); buffer[slot] != EMPTY; slot = (slot + 1) & (buffer.length - 1)) {
+                if (buffer[slot] == code) {
+                    return true;
+                }
+            }
+        }
+        for (EliasFano run : runs) {
+            if (run.contains(code)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of codes in the set.
+     *
+     * @return Number of codes
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the memory taken by the buffer and the runs, without object headers.
+     *
+     * @return Size of the set in bits
+     */
+    public long sizeInBits() {
+        long bits = (long) Long.SIZE * buffer.length;
+        for (EliasFano run : runs) {
+            bits += run.sizeInBits();
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the memory taken per code.
+     *
+     * @return Bits per code, 0 for an empty set
+     */
+    public double bitsPerCode() {
+        return size == 0 ? 0 : (double) sizeInBits() / size;
+    }
+
+    /**
+     * Returns the number of compressed runs.
+     *
+     * @return Number of runs
+     */
+    public int runs() {
+        return this.runs.size();
+    }
+
+    /**
+     * Returns the slot of the buffer a code hashes to.
+     *
+     * @param code The code
+     * @return Index into the buffer
+     */
+    private int slot(long code) {
+        return (int) ((code * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - bufferBits));
+    }
+
+    /**
+     * Stores the buffered codes as a run, merges it with the runs no larger than it, and resizes the buffer to the
+     * size of the set.
+     */
+    private void flush() {
+        long[] codes = new long[buffered];
+        int count = 0;
+        if (hasZero) {
+            codes[count++] = EMPTY;
+        }
+        for (long code : buffer) {
+            if (code != EMPTY) {
+                codes[count++] = code;
+            }
+        }
+        Arrays.sort(codes);
+        EliasFano run = EliasFano.of(codes);
+        while (!runs.isEmpty() && runs.get(runs.size() - 1).size() <= run.size()) {
+            run = EliasFano.merge(runs.remove(runs.size() - 1), run);
+        }
+        runs.add(run);
+        int capacity = (int) Math.min(MAX_BUFFER, Math.max(MIN_BUFFER, Long.highestOneBit(size / BUFFER_RATIO)));
+        if (2 * capacity != buffer.length) {
+            buffer = new long[2 * capacity];
+            bufferBits = Integer.numberOfTrailingZeros(buffer.length);
+        }
+        else {
+            Arrays.fill(buffer, EMPTY);
+        }
+        buffered = 0;
+        hasZero = false;
+    }
+
+    /**
+     * Sorted distinct codes in Elias-Fano form. Each code is stored relative to the smallest one, split into its
+     * lowest bits, packed as they are, and its high bits, stored as the position of a one bit in a bit vector that
+     * also has a zero for every high value. The position of every {@value #SAMPLE}th zero is sampled, so finding the
+     * codes with a given high value only scans a few words.
+     */
+    private static final class EliasFano {
+        /** Number of zeros between two samples. */
+        private static final int SAMPLE = 64;
+
+        private final int size;
+        private final long base;
+        private final long max;
+        private final int lowBits;
+        private final long lowMask;
+        private final long[] low;
+        private final long[] high;
+        private long[] samples;
+        private int added;
+
+        /**
+         * Constructor for an empty run, filled in by {@link #append(long)} in ascending order.
+         *
+         * @param size Number of codes
+         * @param base Smallest code
+         * @param max Largest code
+         */
+        private EliasFano(int size, long base, long max) {
+            this.size = size;
+            this.base = base;
+            this.max = max;
+            long quotient = Long.divideUnsigned(max - base, Math.max(1, size));
+            this.lowBits = quotient == 0 ? 0 : Long.SIZE - 1 - Long.numberOfLeadingZeros(quotient);
+            this.lowMask = (1L << lowBits) - 1;
+            this.low = new long[(int) (((long) size * lowBits + Long.SIZE - 1) / Long.SIZE)];
+            long highLength = size + ((max - base) >>> lowBits) + 1;
+            this.high = new long[(int) ((highLength + Long.SIZE - 1) / Long.SIZE)];
+        }
+
+        /**
+         * Encodes sorted distinct codes.
+         *
+         * @param codes Codes in ascending order, at least one
+         * @return The run
+         */
+        static EliasFano of(long[] codes) {
+            EliasFano run = new EliasFano(codes.length, codes[0], codes[codes.length - 1]);
+            for (long code : codes) {
+                run.append(code);
+            }
+            run.sample();
+            return run;
+        }
+
+        /**
+         * Merges two runs with no code in common into one.
+         *
+         * @param first One run
+         * @param second The other run
+         * @return The run with the codes of both
+         */
+        static EliasFano merge(EliasFano first, EliasFano second) {
+            EliasFano run = new EliasFano(first.size + second.size, Math.min(first.base, second.base),
+                    Math.max(first.max, second.max));
+            Cursor a = first.new Cursor();
+            Cursor b = second.new Cursor();
+            boolean hasA = a.advance();
+            boolean hasB = b.advance();
+            while (hasA && hasB) {
+                if (a.code < b.code) {
+                    run.append(a.code);
+                    hasA = a.advance();
+                }
+                else {
+                    run.append(b.code);
+                    hasB = b.advance();
+                }
+            }
+            for (; hasA; hasA = a.advance()) {
+                run.append(a.code);
+            }
+            for (; hasB; hasB = b.advance()) {
+                run.append(b.code);
+            }
+            run.sample();
+            return run;
+        }
+
+        /**
+         * Appends the next code, larger than all appended before it.
+         *
+         * @param code The code
+         */
+        private void append(long code) {
+            long offset = code - base;
+            long position = (offset >>> lowBits) + added;
+            high[(int) (position >>> 6)] |= 1L << position;
+            if (lowBits > 0) {
+                long bit = (long) added * lowBits;
+                int word = (int) (bit >>> 6);
+                int shift = (int) (bit & 63);
+                long value = offset & lowMask;
+                low[word] |= value << shift;
+                if (shift + lowBits > Long.SIZE) {
+                    low[word + 1] |= value >>> (Long.SIZE - shift);
+                }
+            }
+            added++;
+        }
+
+        /**
+         * Records the position of every {@value #SAMPLE}th zero of the high bits, once every code is appended.
+         */
+        private void sample() {
+            long zeros = (long) high.length * Long.SIZE - size;
+            samples = new long[(int) ((zeros + SAMPLE - 1) / SAMPLE)];
+            long seen = 0;
+            int next = 0;
+            for (int word = 0; word < high.length && next < samples.length; word++) {
+                long bits = ~high[word];
+                int count = Long.bitCount(bits);
+                while (next < samples.length && seen + count > (long) next * SAMPLE) {
+                    samples[next] = (long) word * Long.SIZE + select(bits, (int) ((long) next * SAMPLE - seen));
+                    next++;
+                }
+                seen += count;
+            }
+        }
+
+        /**
+         * Returns the position of a set bit within a word.
+         *
+         * @param bits The word
+         * @param rank Number of set bits before the one wanted
+         * @return Index of the bit, from the lowest
+         */
+        private static int select(long bits, int rank) {
+            int shift = 0;
+            for (int width = Integer.SIZE; width >= Byte.SIZE; width >>>= 1) {
+                int count = Long.bitCount(bits & ((1L << width) - 1));
+                if (rank >= count) {
+                    rank -= count;
+                    bits >>>= width;
+                    shift += width;
+                }
+            }
+            for (int i = 0; i < rank; i++) {
+                bits &= bits - 1;
+            }
+            return shift + Long.numberOfTrailingZeros(bits);
+        }
+
+        /**
+         * Returns the position of a zero of the high bits.
+         *
+         * @param rank Number of zeros before the one wanted
+         * @return Index of the zero in the high bits
+         */
+        private long selectZero(long rank) {
+            long position = samples[(int) (rank / SAMPLE)];
+            long remaining = rank % SAMPLE;
+            int word = (int) (position >>> 6);
+            long bits = ~high[word] & (-1L << position);
+            int count = Long.bitCount(bits);
+            while (count <= remaining) {
+                remaining -= count;
+                bits = ~high[++word];
+                count = Long.bitCount(bits);
+            }
+            return (long) word * Long.SIZE + select(bits, (int) remaining);
+        }
+
+        /**
+         * Returns the low bits of a code.
+         *
+         * @param index Index of the code in the run
+         * @return Its lowest {@code lowBits} bits
+         */
+        private long low(long index) {
+            if (lowBits == 0) {
+                return 0;
+            }
+            long bit = index * lowBits;
+            int word = (int) (bit >>> 6);
+            int shift = (int) (bit & 63);
+            long value = low[word] >>> shift;
+            if (shift + lowBits > Long.SIZE) {
+                value |= low[word + 1] << (Long.SIZE - shift);
+            }
+            return value & lowMask;
+        }
+
+        /**
+         * Returns whether the high bits have a one at a position.
+         *
+         * @param position Index into the high bits
+         * @return Whether the bit is set
+         */
+        private boolean highBit(long position) {
+            return position < (long) high.length * Long.SIZE && (high[(int) (position >>> 6)] & 1L << position) != 0;
+        }
+
+        /**
+         * Returns whether the run holds a code. The codes sharing its high bits follow the zero that ends the
+         * smaller high values, and are compared by their low bits in ascending order.
+         *
+         * @param code The code
+         * @return Whether the code is in the run
+         */
+        boolean contains(long code) {
+            if (code < base || code > max) {
+                return false;
+            }
+            long offset = code - base;
+            long highValue = offset >>> lowBits;
+            long lowValue = offset & lowMask;
+            long position = highValue == 0 ? 0 : selectZero(highValue - 1) + 1;
+            for (long index = position - highValue; highBit(position); position++, index++) {
+                long found = low(index);
+                if (found == lowValue) {
+                    return true;
+                }
+                if (found > lowValue) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the number of codes in the run.
+         *
+         * @return Number of codes
+         */
+        int size() {
+            return this.size;
+        }
+
+        /**
+         * Returns the memory taken by the run, without object headers.
+         *
+         * @return Size of the low bits, high bits and samples in bits
+         */
+        long sizeInBits() {
+            return (long) Long.SIZE * (low.length + high.length + samples.length);
+        }
+
+        /**
+         * Reads the codes of a run in ascending order.
+         */
+        private final class Cursor {
+            private long index = -1;
+            private int word;
+            private long bits = high.length > 0 ? high[0] : 0;
+            private long code;
+
+            /**
+             * Moves to the next code, which is then in {@link #code}.
+             *
+             * @return Whether there was a next code
+             */
+            boolean advance() {
+                if (++index == size) {
+                    return false;
+                }
+                while (bits == 0) {
+                    bits = high[++word];
+                }
+                long position = (long) word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                code = base + ((position - index) << lowBits | low(index));
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package puzzles.common.solver;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Exact number of moves to the nearest solution for every configuration reachable from a start configuration.
+ * <p>
+ * The table is built by retrograde analysis. A forward breadth-first search first enumerates the whole cluster of
+ * the start configuration by state code, then a second breadth-first search runs backwards from every solved
+ * configuration of that cluster at once. Afterwards the distance, the best next step and whether a move was
+ * optimal are all answered by lookups instead of searches. Configurations that are not a
+ * {@link ReversibleConfiguration} are assumed to have symmetric moves.
+ * <p>
+ * Only the sorted codes of the cluster and a parallel array of distances are kept, ten bytes per configuration, and
+ * a configuration is found by binary search over the codes.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public final class DistanceTable {
+    /** Distance of a configuration from which no solution can be reached. */
+    public static final int UNSOLVABLE = -1;
+
+    /** First four bytes of a saved table; tables saved unsorted with an earlier magic are analysed again. */
+    private static final int MAGIC = 0x44495332;
+
+    private final long fingerprint;
+    private final long[] codes;
+    private final short[] distances;
+    private final int maxDistance;
+
+    /**
+     * Constructor for DistanceTable objects. Use {@link #build} or {@link #load} to create a table.
+     *
+     * @param fingerprint Identifies the puzzle the codes belong to
+     * @param codes Code of every configuration in the cluster, in ascending order
+     * @param distances Distance of the code at the same index, {@link #UNSOLVABLE} if no solution can be reached
+     * @param maxDistance Largest finite distance in the table
+     */
+    private DistanceTable(long fingerprint, long[] codes, short[] distances, int maxDistance) {
+        this.fingerprint = fingerprint;
+        this.codes = codes;
+        this.distances = distances;
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Analyses the cluster of a configuration.
+     *
+     * @param start A configuration of the cluster
+     * @param fingerprint Identifies the puzzle the state codes belong to, checked by {@link #load}
+     * @return The distance table of the cluster
+     */
+    public static DistanceTable build(EncodedConfiguration start, long fingerprint) {
+        if (!start.hasCode()) {
+            throw new IllegalArgumentException("Configuration has no single-long code");
+        }
+        LongHashTable distances = new LongHashTable();
+        long[] cluster = new long[1024];
+        int size = 0;
+        LongQueue queue = new LongQueue();
+        long root = start.encode();
+        distances.putIfAbsent(root, UNSOLVABLE);
+        cluster[size++] = root;
+        for (int head = 0; head < size; head++) {
+            EncodedConfiguration current = start.decode(cluster[head]);
+            if (current.isSolution()) {
+                distances.put(cluster[head], 0);
+                queue.add(cluster[head]);
+            }
+            for (Configuration neighbor : current.getNeighbors()) {
+                long code = ((EncodedConfiguration) neighbor).encode();
+                if (distances.putIfAbsent(code, UNSOLVABLE)) {
+                    if (size == cluster.length) {
+                        cluster = Arrays.copyOf(cluster, size * 2);
+                    }
+                    cluster[size++] = code;
+                }
+            }
+        }
+        int maxDistance = 0;
+        while (!queue.isEmpty()) {
+            long code = queue.remove();
+            int distance = (int) distances.get(code, UNSOLVABLE) + 1;
+            EncodedConfiguration current = start.decode(code);
+            Collection<Configuration> predecessors = current instanceof ReversibleConfiguration reversible ?
+                    reversible.getPredecessors() : current.getNeighbors();
+            for (Configuration predecessor : predecessors) {
+                long predecessorCode = ((EncodedConfiguration) predecessor).encode();
+                if (distances.get(predecessorCode, 0) == UNSOLVABLE) {
+                    distances.put(predecessorCode, distance);
+                    queue.add(predecessorCode);
+                    maxDistance = distance;
+                }
+            }
+        }
+        long[] codes = Arrays.copyOf(cluster, size);
+        Arrays.sort(codes);
+        short[] sorted = new short[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = (short) distances.get(codes[i], UNSOLVABLE);
+        }
+        return new DistanceTable(fingerprint, codes, sorted, maxDistance);
+    }
+
+    /**
+     * Reads a table written by {@link #save}.
+     *
+     * @param file The file to read
+     * @param fingerprint Fingerprint of the puzzle the table is needed for
+     * @return The table, or null if the file does not exist or belongs to another puzzle
+     * @throws IOException If the file cannot be read or is not a table saved in this format
+     */
+    public static DistanceTable load(Path file, long fingerprint) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a distance table: " + file);
+            }
+            if (in.readLong() != fingerprint) {
+                return null;
+            }
+            int maxDistance = in.readInt();
+            int size = in.readInt();
+            long[] codes = new long[size];
+            short[] distances = new short[size];
+            for (int i = 0; i < size; i++) {
+                codes[i] = in.readLong();
+                distances[i] = in.readShort();
+                if (i > 0 && codes[i] <= codes[i - 1]) {
+                    throw new IOException("Codes out of order: " + file);
+                }
+            }
+            return new DistanceTable(fingerprint, codes, distances, maxDistance);
+        }
+    }
+
+    /**
+     * Writes the table so that the same puzzle can later be loaded without analysing it again.
+     *
+     * @param file The file to write
+     * @throws IOException If the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(fingerprint);
+            out.writeInt(maxDistance);
+            out.writeInt(codes.length);
+            for (int i = 0; i < codes.length; i++) {
+                out.writeLong(codes[i]);
+                out.writeShort(distances[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns whether a configuration belongs to the analysed cluster.
+     *
+     * @param config A configuration of the same puzzle
+     * @return Whether the table knows the configuration
+     */
+    public boolean contains(EncodedConfiguration config) {
+        return Arrays.binarySearch(codes, config.encode()) >= 0;
+    }
+
+    /**
+     * Returns the number of moves from a configuration to the nearest solution.
+     *
+     * @param config A configuration of the same puzzle
+     * @return The distance, or {@link #UNSOLVABLE} if no solution can be reached or the configuration is unknown
+     */
+    public int distance(EncodedConfiguration config) {
+        int index = Arrays.binarySearch(codes, config.encode());
+        return index >= 0 ? distances[index] : UNSOLVABLE;
+    }
+
+    /**
+     * Returns a neighbor that is one move closer to a solution.
+     *
+     * @param config A configuration of the same puzzle
+     * @return The next configuration on a shortest path, or null if the configuration is solved or unsolvable
+     */
+    public EncodedConfiguration nextStep(EncodedConfiguration config) {
+        int distance = distance(config);
+        if (distance > 0) {
+            for (Configuration neighbor : config.getNeighbors()) {
+                EncodedConfiguration next = (EncodedConfiguration) neighbor;
+                if (distance(next) == distance - 1) {
+                    return next;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether going from one configuration to another keeps to a shortest path.
+     *
+     * @param from Configuration before the move
+     * @param to Configuration after the move
+     * @param moves Number of moves the change counts as
+     * @return Whether the distance to a solution dropped by exactly the number of moves
+     */
+    public boolean isOptimal(EncodedConfiguration from, EncodedConfiguration to, int moves) {
+        int distance = distance(from);
+        return distance != UNSOLVABLE && distance(to) == distance - moves;
+    }
+
+    /**
+     * Returns the number of configurations in the analysed cluster.
+     *
+     * @return Size of the cluster
+     */
+    public int size() {
+        return this.codes.length;
+    }
+
+    /**
+     * Returns the distance of the hardest solvable configuration in the cluster.
+     *
+     * @return Largest finite distance
+     */
+    public int getMaxDistance() {
+        return this.maxDistance;
+    }
+
+    /**
+     * Returns the fingerprint of the puzzle the table belongs to.
+     *
+     * @return The fingerprint
+     */
+    public long getFingerprint() {
+        return this.fingerprint;
+    }
+}
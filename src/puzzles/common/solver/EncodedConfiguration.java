@@ -0,0 +1,34 @@
+package puzzles.common.solver;
+
+/**
+ * An interface for Configuration classes whose whole state fits in a single long. The solver uses the code as the
+ * key of its visited table instead of the configuration object itself.
+ *
+ * @author John West (jrw2936)
+ */
+public interface EncodedConfiguration extends Configuration {
+    /**
+     * Returns whether this configuration can be represented by {@link #encode()}. Puzzles whose state only sometimes
+     * fits in a long return false for the larger instances.
+     *
+     * @return Whether the configuration has a code
+     */
+    default boolean hasCode() {
+        return true;
+    }
+
+    /**
+     * Returns the code uniquely identifying this configuration within its puzzle.
+     *
+     * @return The state code
+     */
+    long encode();
+
+    /**
+     * Rebuilds a configuration of the same puzzle from its code.
+     *
+     * @param code A code previously returned by {@link #encode()}
+     * @return The configuration with that code
+     */
+    EncodedConfiguration decode(long code);
+}
@@ -0,0 +1,422 @@
+package puzzles.common.solver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Breadth-first solver that keeps its search on disk, for clusters too large for an in-heap visited table. Each
+ * level is a sorted file of state codes; the only large object on the heap is one buffer of codes, sized from a
+ * memory cap.
+ * <p>
+ * A level is expanded by streaming its file and filling the buffer with the codes of the neighbors. Every time the
+ * buffer is full it is sorted, stripped of duplicates, and written out as a run. The runs are then merged with the
+ * sorted file of every code visited so far: codes already in it are dropped, and the rest form the next level and
+ * are merged into a new visited file. Duplicates are therefore detected a level late, by merging instead of by
+ * lookups. Once the solution is reached, the path is rebuilt backwards: each step looks up the predecessors of the
+ * current state in the previous level by binary search, or scans that level for configurations that cannot list
+ * their predecessors. All files go to a fresh directory that is deleted when the solve ends, and the bytes read
+ * and written for every level are recorded in the statistics.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public class ExternalSolver {
+    /** Memory cap used when none is given, in bytes. */
+    public static final long DEFAULT_MEMORY = 64L << 20;
+
+    /** Fewest codes the buffer holds, whatever the cap. */
+    private static final int MIN_BUFFER = 1024;
+
+    private final Path directory;
+    private final int capacity;
+
+    /**
+     * Constructor for a solver writing its files under a directory.
+     *
+     * @param directory Directory in which each solve creates its own working directory
+     * @param memory Heap the buffer of codes may take, in bytes
+     */
+    public ExternalSolver(Path directory, long memory) {
+        if (memory < (long) MIN_BUFFER * Long.BYTES) {
+            throw new IllegalArgumentException("Memory cap below " + MIN_BUFFER * Long.BYTES + " bytes: " + memory);
+        }
+        this.directory = directory;
+        this.capacity = (int) Math.min(memory / Long.BYTES, Integer.MAX_VALUE - 8);
+    }
+
+    /**
+     * Constructor for a solver writing its files under a directory with the default memory cap.
+     *
+     * @param directory Directory in which each solve creates its own working directory
+     */
+    public ExternalSolver(Path directory) {
+        this(directory, DEFAULT_MEMORY);
+    }
+
+    /**
+     * Returns the number of codes the buffer holds.
+     *
+     * @return Codes sorted in memory at once
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * @param config Initial configuration of the puzzle.
+     * @return The shortest path to the intended solution, or null if there is none.
+     * @throws IOException If the files of the search cannot be written or read.
+     */
+    public Collection<Configuration> solve(EncodedConfiguration config) throws IOException {
+        return solve(config, new SolverStats());
+    }
+
+    /**
+     * @param config Initial configuration of the puzzle; it has to have a code.
+     * @param stats Statistics filled in by this solve, with the bytes read and written per level.
+     * @return The shortest path to the intended solution, or null if there is none.
+     * @throws IOException If the files of the search cannot be written or read.
+     */
+    public Collection<Configuration> solve(EncodedConfiguration config, SolverStats stats) throws IOException {
+        if (!config.hasCode()) {
+            throw new IllegalArgumentException("Configuration has no state code: " + config);
+        }
+        Path work = Files.createTempDirectory(directory, "bfs-");
+        try {
+            return search(config, stats, work);
+        }
+        finally {
+            try (Stream<Path> files = Files.list(work)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(work);
+        }
+    }
+
+    /**
+     * Searches level by level in a working directory.
+     *
+     * @param config Initial configuration of the puzzle
+     * @param stats Statistics filled in by this solve
+     * @param work Working directory for the files of this solve
+     * @return The shortest path, or null if there is none
+     * @throws IOException If a file cannot be written or read
+     */
+    private Collection<Configuration> search(EncodedConfiguration config, SolverStats stats, Path work)
+            throws IOException {
+        stats.start();
+        long[] buffer = new long[capacity];
+        try (CodeFile.Writer layer = CodeFile.create(level(work, 0));
+             CodeFile.Writer visited = CodeFile.create(visited(work, 0))) {
+            layer.add(config.encode());
+            visited.add(config.encode());
+        }
+        stats.generated(1);
+        stats.levelCompleted(0, 1);
+        stats.levelIo(0, 2 * Long.BYTES);
+        long unique = 1;
+        int depth = 0;
+        while (true) {
+            long read = 0;
+            long written = 0;
+            List<Path> runs = new ArrayList<>();
+            int size = 0;
+            EncodedConfiguration solution = null;
+            try (CodeFile.Reader layer = CodeFile.open(level(work, depth))) {
+                if (layer.size() == 0) {
+                    stats.finish((int) Math.min(unique, Integer.MAX_VALUE));
+                    return null;
+                }
+                stats.frontier((int) Math.min(layer.size(), Integer.MAX_VALUE));
+                for (long i = 0; i < layer.size(); i++) {
+                    EncodedConfiguration current = config.decode(layer.get(i));
+                    if (current.isSolution()) {
+                        solution = current;
+                        break;
+                    }
+                    long time = System.nanoTime();
+                    Collection<Configuration> neighbors = current.getNeighbors();
+                    stats.expanded(neighbors.size(), System.nanoTime() - time);
+                    for (Configuration neighbor : neighbors) {
+                        if (size == buffer.length) {
+                            written += writeRun(buffer, size, run(work, runs.size()));
+                            runs.add(run(work, runs.size()));
+                            size = 0;
+                        }
+                        buffer[size++] = ((EncodedConfiguration) neighbor).encode();
+                    }
+                }
+                read += layer.bytesRead();
+            }
+            if (solution != null) {
+                stats.finish((int) Math.min(unique, Integer.MAX_VALUE));
+                return path(config, solution, depth, work);
+            }
+            if (size > 0) {
+                written += writeRun(buffer, size, run(work, runs.size()));
+                runs.add(run(work, runs.size()));
+            }
+            Merge merge = merge(runs, visited(work, depth), level(work, depth + 1), visited(work, depth + 1));
+            read += merge.read();
+            written += merge.written();
+            for (Path run : runs) {
+                Files.delete(run);
+            }
+            Files.delete(visited(work, depth));
+            depth++;
+            unique += merge.size();
+            if (merge.size() > 0) {
+                stats.levelCompleted(depth, (int) Math.min(merge.size(), Integer.MAX_VALUE));
+                stats.levelIo(read, written);
+            }
+        }
+    }
+
+    /**
+     * Sorts the buffer, drops its duplicates, and writes it as a run.
+     *
+     * @param buffer Codes of neighbors
+     * @param size Number of codes in the buffer
+     * @param file File of the run
+     * @return Bytes written
+     * @throws IOException If the run cannot be written
+     */
+    private static long writeRun(long[] buffer, int size, Path file) throws IOException {
+        Arrays.sort(buffer, 0, size);
+        try (CodeFile.Writer run = CodeFile.create(file)) {
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || buffer[i] != buffer[i - 1]) {
+                    run.add(buffer[i]);
+                }
+            }
+            return run.bytes();
+        }
+    }
+
+    /**
+     * Merges the runs of one level with the codes visited so far. Codes that were not visited yet are written to the
+     * next level, and every code of both to the new visited file, all in ascending order.
+     *
+     * @param runs Sorted runs of neighbor codes
+     * @param visitedFile Sorted codes visited up to this level
+     * @param levelFile File of the next level
+     * @param nextVisitedFile File of the codes visited up to the next level
+     * @return The size of the next level and the bytes read and written
+     * @throws IOException If a file cannot be written or read
+     */
+    private static Merge merge(List<Path> runs, Path visitedFile, Path levelFile, Path nextVisitedFile)
+            throws IOException {
+        CodeFile.Reader[] readers = new CodeFile.Reader[runs.size()];
+        long[] positions = new long[readers.length];
+        long[] heads = new long[readers.length];
+        int[] heap = new int[readers.length];
+        int heapSize = 0;
+        long read = 0;
+        try (CodeFile.Reader visited = CodeFile.open(visitedFile);
+             CodeFile.Writer level = CodeFile.create(levelFile);
+             CodeFile.Writer nextVisited = CodeFile.create(nextVisitedFile)) {
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = CodeFile.open(runs.get(i));
+                if (readers[i].size() > 0) {
+                    heads[i] = readers[i].get(0);
+                    positions[i] = 1;
+                    heap[heapSize] = i;
+                    siftUp(heap, heads, heapSize++);
+                }
+            }
+            long visitedAt = 0;
+            long old = visited.size() > 0 ? visited.get(0) : Long.MAX_VALUE;
+            long last = 0;
+            boolean first = true;
+            while (heapSize > 0) {
+                int top = heap[0];
+                long code = heads[top];
+                if (positions[top] < readers[top].size()) {
+                    heads[top] = readers[top].get(positions[top]++);
+                }
+                else {
+                    heap[0] = heap[--heapSize];
+                }
+                siftDown(heap, heads, heapSize);
+                if (!first && code == last) {
+                    continue;
+                }
+                first = false;
+                last = code;
+                while (visitedAt < visited.size() && old < code) {
+                    nextVisited.add(old);
+                    old = ++visitedAt < visited.size() ? visited.get(visitedAt) : Long.MAX_VALUE;
+                }
+                if (visitedAt == visited.size() || old != code) {
+                    level.add(code);
+                    nextVisited.add(code);
+                }
+            }
+            while (visitedAt < visited.size()) {
+                nextVisited.add(old);
+                old = ++visitedAt < visited.size() ? visited.get(visitedAt) : Long.MAX_VALUE;
+            }
+            read += visited.bytesRead();
+            for (CodeFile.Reader reader : readers) {
+                read += reader.bytesRead();
+            }
+            return new Merge(level.count(), read, level.bytes() + nextVisited.bytes());
+        }
+        finally {
+            for (CodeFile.Reader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Restores the heap order after a run index was added at the end.
+     *
+     * @param heap Run indices ordered by their current codes
+     * @param heads Current code of each run
+     * @param at Position of the added index
+     */
+    private static void siftUp(int[] heap, long[] heads, int at) {
+        int index = heap[at];
+        while (at > 0 && heads[heap[(at - 1) >>> 1]] > heads[index]) {
+            heap[at] = heap[(at - 1) >>> 1];
+            at = (at - 1) >>> 1;
+        }
+        heap[at] = index;
+    }
+
+    /**
+     * Restores the heap order after the code of the top run changed.
+     *
+     * @param heap Run indices ordered by their current codes
+     * @param heads Current code of each run
+     * @param size Number of runs left in the heap
+     */
+    private static void siftDown(int[] heap, long[] heads, int size) {
+        if (size == 0) {
+            return;
+        }
+        int index = heap[0];
+        int at = 0;
+        while (2 * at + 1 < size) {
+            int child = 2 * at + 1;
+            if (child + 1 < size && heads[heap[child + 1]] < heads[heap[child]]) {
+                child++;
+            }
+            if (heads[heap[child]] >= heads[index]) {
+                break;
+            }
+            heap[at] = heap[child];
+            at = child;
+        }
+        heap[at] = index;
+    }
+
+    /**
+     * Rebuilds the path by searching backwards through the level files.
+     *
+     * @param config Initial configuration of the puzzle
+     * @param solution The solved configuration
+     * @param depth Level of the solved configuration
+     * @param work Working directory of the solve
+     * @return The configurations from the initial one to the solution
+     * @throws IOException If a level file cannot be read
+     */
+    private static List<Configuration> path(EncodedConfiguration config, EncodedConfiguration solution, int depth,
+                                            Path work) throws IOException {
+        LinkedList<Configuration> path = new LinkedList<>();
+        path.addFirst(solution);
+        EncodedConfiguration current = solution;
+        for (int level = depth - 1; level >= 0; level--) {
+            try (CodeFile.Reader previous = CodeFile.open(level(work, level))) {
+                current = predecessor(config, current, previous);
+            }
+            path.addFirst(current);
+        }
+        return path;
+    }
+
+    /**
+     * Finds a configuration of a level that reaches the given one in a single move.
+     *
+     * @param config Initial configuration of the puzzle, used to decode codes
+     * @param current The configuration to reach
+     * @param level Sorted codes of the previous level
+     * @return A configuration of the level with the current one among its neighbors
+     * @throws IOException If the level file cannot be read
+     */
+    private static EncodedConfiguration predecessor(EncodedConfiguration config, EncodedConfiguration current,
+                                                    CodeFile.Reader level) throws IOException {
+        long code = current.encode();
+        if (current instanceof ReversibleConfiguration reversible) {
+            for (Configuration predecessor : reversible.getPredecessors()) {
+                long predecessorCode = ((EncodedConfiguration) predecessor).encode();
+                if (level.contains(predecessorCode)) {
+                    return config.decode(predecessorCode);
+                }
+            }
+        }
+        for (long i = 0; i < level.size(); i++) {
+            EncodedConfiguration candidate = config.decode(level.get(i));
+            for (Configuration neighbor : candidate.getNeighbors()) {
+                if (((EncodedConfiguration) neighbor).encode() == code) {
+                    return candidate;
+                }
+            }
+        }
+        throw new IllegalStateException("No predecessor of " + current + " in level file");
+    }
+
+    /**
+     * Returns the file of one level.
+     *
+     * @param work Working directory of the solve
+     * @param depth Depth of the level
+     * @return The level file
+     */
+    private static Path level(Path work, int depth) {
+        return work.resolve("level-" + depth);
+    }
+
+    /**
+     * Returns the file of the codes visited up to one level.
+     *
+     * @param work Working directory of the solve
+     * @param depth Depth of the level
+     * @return The visited file
+     */
+    private static Path visited(Path work, int depth) {
+        return work.resolve("visited-" + depth);
+    }
+
+    /**
+     * Returns the file of one run of the level being expanded.
+     *
+     * @param work Working directory of the solve
+     * @param index Index of the run
+     * @return The run file
+     */
+    private static Path run(Path work, int index) {
+        return work.resolve("run-" + index);
+    }
+
+    /**
+     * Outcome of merging the runs of one level.
+     *
+     * @param size Number of codes in the next level
+     * @param read Bytes read
+     * @param written Bytes written
+     */
+    private record Merge(long size, long read, long written) {
+    }
+}
@@ -0,0 +1,23 @@
+package puzzles.common.solver;
+
+/**
+ * An interface for estimating how many moves a configuration, or a {@link SearchState}, is from a solution. Engines
+ * that rely on it return shortest paths only when the estimate is admissible, that is, never larger than the true
+ * distance.
+ *
+ * @param <C> the type of configuration or search state being estimated
+ *
+ * @author John West (jrw2936)
+ */
+public interface Heuristic<C> {
+    /** Estimate returned for configurations from which no solution can be reached. */
+    int UNSOLVABLE = Integer.MAX_VALUE;
+
+    /**
+     * Returns a lower bound on the number of moves needed to reach a solution.
+     *
+     * @param config The configuration to estimate
+     * @return The estimated number of moves, or {@link #UNSOLVABLE}
+     */
+    int estimate(C config);
+}
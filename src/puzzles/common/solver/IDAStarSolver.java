@@ -0,0 +1,178 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * Iterative-deepening A* solver. Each iteration is a depth-first search that prunes states whose moves taken plus
+ * heuristic estimate exceed the current bound; the next bound is the smallest estimate that was pruned. The search
+ * walks a single {@link SearchState}, applying and undoing moves in place, so no configuration is created per node.
+ * A fixed-size transposition table remembers the fewest moves each state was reached with during the iteration, and
+ * a state reached again with as many moves or more is not searched twice. The table only ever saves work: when two
+ * states share a slot the newer one replaces the older, which is then searched again if it comes up. With an
+ * admissible heuristic the returned path is a shortest one.
+ *
+ * @param <S> the type of search state being solved
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public class IDAStarSolver<S extends SearchState> {
+    /** Number of slots of the transposition table unless given, about 12 MB. */
+    public static final int DEFAULT_TABLE_SIZE = 1 << 20;
+
+    /** Marker returned by an iteration that reached a solution. */
+    private static final int FOUND = -1;
+
+    private final Heuristic<S> heuristic;
+    private final long[] keys;
+    private final int[] depths;
+    private final int mask;
+    private int[] moves = new int[64];
+    private int solutionDepth;
+    private final List<MoveBuffer> buffers = new ArrayList<>();
+
+    /**
+     * Constructor for an IDA* solver using the given heuristic and a transposition table of the default size.
+     *
+     * @param heuristic Admissible estimate of the moves remaining
+     */
+    public IDAStarSolver(Heuristic<S> heuristic) {
+        this(heuristic, DEFAULT_TABLE_SIZE);
+    }
+
+    /**
+     * Constructor for an IDA* solver using the given heuristic and a transposition table of a given size.
+     *
+     * @param heuristic Admissible estimate of the moves remaining
+     * @param tableSize Number of slots of the transposition table, rounded up to a power of two
+     */
+    public IDAStarSolver(Heuristic<S> heuristic, int tableSize) {
+        int size = Integer.highestOneBit(Math.max(2, tableSize) * 2 - 1);
+        this.heuristic = heuristic;
+        this.keys = new long[size];
+        this.depths = new int[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the number of slots of the transposition table.
+     *
+     * @return Table size
+     */
+    public int getTableSize() {
+        return this.keys.length;
+    }
+
+    /**
+     * @param state Initial state of the puzzle. It is back in that state when the solve returns.
+     * @return The shortest path to a solution, or null if there is none.
+     */
+    public Collection<Configuration> solve(S state) {
+        return solve(state, new SolverStats());
+    }
+
+    /**
+     * @param state Initial state of the puzzle. It is back in that state when the solve returns.
+     * @param stats Statistics filled in by this solve. No visited set is kept, so unique stays 0.
+     * @return The shortest path to a solution, or null if there is none.
+     */
+    public Collection<Configuration> solve(S state, SolverStats stats) {
+        stats.start();
+        stats.generated(1);
+        int bound = heuristic.estimate(state);
+        while (bound != Heuristic.UNSOLVABLE) {
+            stats.iteration();
+            Arrays.fill(depths, 0);
+            bound = search(state, 0, bound, stats);
+            if (bound == FOUND) {
+                stats.finish(0);
+                return path(state);
+            }
+        }
+        stats.finish(0);
+        return null;
+    }
+
+    /**
+     * Depth-first search below the current state.
+     *
+     * @param state The state, reached from the initial one by the first moves of {@link #moves}
+     * @param depth Number of moves taken to reach the state
+     * @param bound Largest total estimate explored in this iteration
+     * @param stats Statistics of the solve
+     * @return {@link #FOUND} with the solution left in the state, or the smallest total estimate above the bound
+     */
+    private int search(S state, int depth, int bound, SolverStats stats) {
+        long key = state.key();
+        int slot = slot(key);
+        if (depths[slot] != 0 && keys[slot] == key && depths[slot] <= depth + 1) {
+            return Heuristic.UNSOLVABLE;
+        }
+        int estimate = heuristic.estimate(state);
+        if (estimate == Heuristic.UNSOLVABLE) {
+            return Heuristic.UNSOLVABLE;
+        }
+        if (depth + estimate > bound) {
+            return depth + estimate;
+        }
+        if (state.isSolution()) {
+            solutionDepth = depth;
+            return FOUND;
+        }
+        keys[slot] = key;
+        depths[slot] = depth + 1;
+        if (depth == buffers.size()) {
+            buffers.add(new MoveBuffer());
+        }
+        if (depth == moves.length) {
+            moves = Arrays.copyOf(moves, depth * 2);
+        }
+        MoveBuffer buffer = buffers.get(depth);
+        long time = System.nanoTime();
+        state.generateMoves(buffer);
+        stats.expanded(buffer.size(), System.nanoTime() - time);
+        stats.frontier(depth + 1);
+        int next = Heuristic.UNSOLVABLE;
+        for (int i = 0; i < buffer.size(); i++) {
+            int move = buffer.get(i);
+            state.apply(move);
+            moves[depth] = move;
+            int result = search(state, depth + 1, bound, stats);
+            if (result == FOUND) {
+                return FOUND;
+            }
+            state.undo(move);
+            next = Math.min(next, result);
+        }
+        return next;
+    }
+
+    /**
+     * Returns the slot of the transposition table for a state. The slot holds the key of the last state stored
+     * there and one more than the fewest moves it was reached with in this iteration, or 0 if it is empty. A state
+     * already reached with as few moves needs no search, since everything below it was searched with at least as
+     * much of the bound left.
+     *
+     * @param key Key of the state
+     * @return Index into the table
+     */
+    private int slot(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ mixed >>> 32) & mask;
+    }
+
+    /**
+     * Rebuilds the solution path by taking back the moves that led to it, leaving the initial state.
+     *
+     * @param state The solved state
+     * @return Configurations from the initial one to the solution
+     */
+    private Collection<Configuration> path(S state) {
+        LinkedList<Configuration> path = new LinkedList<>();
+        path.addFirst(state.toConfiguration());
+        for (int depth = solutionDepth - 1; depth >= 0; depth--) {
+            state.undo(moves[depth]);
+            path.addFirst(state.toConfiguration());
+        }
+        return path;
+    }
+}
@@ -0,0 +1,270 @@
+package puzzles.common.solver;
+
+/**
+ * Open-addressing hash table mapping long keys to long values, used by the solver to store each visited state code
+ * with the code of its predecessor. Keys and values live in parallel primitive arrays, so no object is created per
+ * entry. Collisions are resolved with linear probing.
+ *
+ * @author John West (jrw2936)
+ */
+public class LongHashTable {
+    private static final long EMPTY = 0L;
+    private static final double MAX_LOAD = 0.5;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    private int resizes;
+    private long lookups;
+    private long probes;
+    private int maxProbeLength;
+
+    /**
+     * Constructor for an empty table.
+     *
+     * @param expectedSize Number of entries the table should hold before its first resize
+     */
+    public LongHashTable(int expectedSize) {
+        int capacity = Integer.highestOneBit((int) Math.max(16, Math.min(1 << 30, expectedSize / MAX_LOAD)) - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Constructor for an empty table with a default capacity.
+     */
+    public LongHashTable() {
+        this(1024);
+    }
+
+    /**
+     * Spreads the bits of a key so that similar state codes land in distant slots.
+     *
+     * @param key The key
+     * @return The mixed hash
+     */
+    private static long mix(long key) {
+        key = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+        key = (key ^ (key >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return key ^ (key >>> 33);
+    }
+
+    /**
+     * Returns the slot holding the key, or the empty slot where it would be inserted.
+     *
+     * @param key A non-zero key
+     * @return Index of the slot
+     */
+    private int slot(long key) {
+        int index = (int) mix(key) & mask;
+        int length = 1;
+        while (keys[index] != EMPTY && keys[index] != key) {
+            index = (index + 1) & mask;
+            length++;
+        }
+        lookups++;
+        probes += length;
+        if (length > maxProbeLength) {
+            maxProbeLength = length;
+        }
+        return index;
+    }
+
+    /**
+     * Adds the entry if the key is not in the table yet.
+     *
+     * @param key The key
+     * @param value The value stored with the key
+     * @return Whether the entry was added
+     */
+    public boolean putIfAbsent(long key, long value) {
+        if (key == EMPTY) {
+            if (hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = true;
+            zeroValue = value;
+            size++;
+            return true;
+        }
+        int index = slot(key);
+        if (keys[index] == key) {
+            return false;
+        }
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        if (size > (keys.length * MAX_LOAD)) {
+            resize();
+        }
+        return true;
+    }
+
+    /**
+     * Adds the entry, replacing the value if the key is already in the table.
+     *
+     * @param key The key
+     * @param value The value stored with the key
+     */
+    public void put(long key, long value) {
+        if (key == EMPTY) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int index = slot(key);
+        if (keys[index] == key) {
+            values[index] = value;
+            return;
+        }
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        if (size > (keys.length * MAX_LOAD)) {
+            resize();
+        }
+    }
+
+    /**
+     * Returns whether the key is in the table.
+     *
+     * @param key The key
+     * @return Whether the key is present
+     */
+    public boolean containsKey(long key) {
+        if (key == EMPTY) {
+            return hasZeroKey;
+        }
+        return keys[slot(key)] == key;
+    }
+
+    /**
+     * Returns the value stored with a key.
+     *
+     * @param key The key
+     * @param missing Value returned when the key is absent
+     * @return The stored value, or missing
+     */
+    public long get(long key, long missing) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : missing;
+        }
+        int index = slot(key);
+        return keys[index] == key ? values[index] : missing;
+    }
+
+    /**
+     * Doubles the capacity of the table and reinserts every entry.
+     */
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length << 1];
+        values = new long[oldValues.length << 1];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = (int) mix(oldKeys[i]) & mask;
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+        resizes++;
+    }
+
+    /**
+     * Returns the number of entries in the table.
+     *
+     * @return Number of entries
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of slots in the table.
+     *
+     * @return Number of slots
+     */
+    public int capacity() {
+        return this.keys.length;
+    }
+
+    /**
+     * Returns the fraction of slots in use.
+     *
+     * @return The load factor
+     */
+    public double loadFactor() {
+        return (double) size / keys.length;
+    }
+
+    /**
+     * Returns how many times the table has doubled.
+     *
+     * @return Number of resizes
+     */
+    public int resizes() {
+        return this.resizes;
+    }
+
+    /**
+     * Returns the average number of slots inspected per lookup.
+     *
+     * @return Average probe length, or 0 if the table was never searched
+     */
+    public double averageProbeLength() {
+        return lookups == 0 ? 0 : (double) probes / lookups;
+    }
+
+    /**
+     * Returns the largest number of slots inspected by a single lookup.
+     *
+     * @return Maximum probe length
+     */
+    public int maxProbeLength() {
+        return this.maxProbeLength;
+    }
+
+    /**
+     * Returns a snapshot of the table statistics.
+     *
+     * @return Size, load, probe and resize statistics
+     */
+    public Statistics statistics() {
+        return new Statistics(size, keys.length, loadFactor(), averageProbeLength(), maxProbeLength, resizes);
+    }
+
+    /**
+     * Returns a one-line summary of the table statistics.
+     *
+     * @return Summary of size, load, probes and resizes
+     */
+    @Override
+    public String toString() {
+        return statistics().toString();
+    }
+
+    /**
+     * Snapshot of the statistics of a table, kept after the table itself is discarded.
+     */
+    public record Statistics(int size, int capacity, double loadFactor, double averageProbeLength,
+                             int maxProbeLength, int resizes) {
+        @Override
+        public String toString() {
+            return String.format("size=%d capacity=%d load=%.3f avgProbe=%.3f maxProbe=%d resizes=%d",
+                    size, capacity, loadFactor, averageProbeLength, maxProbeLength, resizes);
+        }
+    }
+}
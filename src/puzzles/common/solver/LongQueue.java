@@ -0,0 +1,60 @@
+package puzzles.common.solver;
+
+/**
+ * First-in first-out queue of primitive longs, backed by a growable circular array.
+ *
+ * @author John West (jrw2936)
+ */
+class LongQueue {
+    private long[] elements = new long[1024];
+    private int head;
+    private int size;
+
+    /**
+     * Adds a value at the tail of the queue.
+     *
+     * @param value The value
+     */
+    void add(long value) {
+        if (size == elements.length) {
+            long[] grown = new long[elements.length << 1];
+            for (int i = 0; i < size; i++) {
+                grown[i] = elements[(head + i) & (elements.length - 1)];
+            }
+            elements = grown;
+            head = 0;
+        }
+        elements[(head + size) & (elements.length - 1)] = value;
+        size++;
+    }
+
+    /**
+     * Removes and returns the value at the head of the queue.
+     *
+     * @return The oldest value
+     */
+    long remove() {
+        long value = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+
+    /**
+     * Returns whether the queue is empty.
+     *
+     * @return Whether the queue holds no values
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of values in the queue.
+     *
+     * @return Number of values
+     */
+    int size() {
+        return this.size;
+    }
+}
@@ -0,0 +1,71 @@
+package puzzles.common.solver;
+
+import java.util.Arrays;
+
+/**
+ * Reusable list of moves encoded as ints, filled by {@link SearchState#generateMoves(MoveBuffer)}. The backing array
+ * only grows, so once a search has seen its largest branching factor no further allocation takes place.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public final class MoveBuffer {
+    private int[] moves;
+    private int size;
+
+    /**
+     * Constructor for a buffer with room for the given number of moves.
+     *
+     * @param capacity Initial capacity
+     */
+    public MoveBuffer(int capacity) {
+        this.moves = new int[Math.max(1, capacity)];
+    }
+
+    /**
+     * Constructor for a buffer with a default capacity.
+     */
+    public MoveBuffer() {
+        this(32);
+    }
+
+    /**
+     * Removes every move, keeping the backing array.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Appends a move.
+     *
+     * @param move The encoded move
+     */
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * Returns a move of the buffer.
+     *
+     * @param index Index of the move
+     * @return The encoded move
+     */
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return moves[index];
+    }
+
+    /**
+     * Returns the number of moves in the buffer.
+     *
+     * @return Number of moves
+     */
+    public int size() {
+        return this.size;
+    }
+}
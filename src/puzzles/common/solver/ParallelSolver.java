@@ -0,0 +1,259 @@
+package puzzles.common.solver;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Breadth-first solver that expands each level of the search across a fork/join pool.
+ * <p>
+ * Every level runs in two parallel passes. The first pass generates the neighbors of each frontier configuration
+ * and claims each new one for the lowest frontier index that produced it, using a lock-free merge in a concurrent
+ * map. The second pass lets each frontier index collect the configurations it owns, in generation order. Joining
+ * those lists in frontier order reproduces exactly the queue order of {@link Solver}, so both solvers return paths
+ * of the same length and count the same configurations.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public class ParallelSolver implements AutoCloseable {
+    /** Fewest frontier configurations a single task handles before splitting. */
+    private static final int MIN_SPLIT = 16;
+
+    private final ForkJoinPool pool;
+    private final int threads;
+
+    /**
+     * Constructor for a solver using the given number of worker threads.
+     *
+     * @param threads Number of worker threads
+     */
+    public ParallelSolver(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        this.threads = threads;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Constructor for a solver using one worker thread per available processor.
+     */
+    public ParallelSolver() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Returns the number of worker threads.
+     *
+     * @return Number of worker threads
+     */
+    public int getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * @param config Initial configuration of the puzzle.
+     * @return The shortest path to the intended solution, or null if there is none.
+     */
+    public Collection<Configuration> solve(Configuration config) {
+        return solve(config, new SolverStats());
+    }
+
+    /**
+     * @param config Initial configuration of the puzzle.
+     * @param stats Statistics filled in by this solve.
+     * @return The shortest path to the intended solution, or null if there is none.
+     */
+    public Collection<Configuration> solve(Configuration config, SolverStats stats) {
+        stats.start();
+        ConcurrentHashMap<Configuration, Configuration> predecessors = new ConcurrentHashMap<>();
+        predecessors.put(config, config);
+        stats.generated(1);
+        stats.levelCompleted(0, 1);
+        List<Configuration> frontier = List.of(config);
+        Work work = new Work();
+        int depth = 0;
+        while (!frontier.isEmpty()) {
+            stats.frontier(frontier.size());
+            int solution = -1;
+            for (int i = 0; i < frontier.size() && solution < 0; i++) {
+                if (frontier.get(i).isSolution()) {
+                    solution = i;
+                }
+            }
+            int limit = solution < 0 ? frontier.size() : solution;
+            Configuration[][] generated = new Configuration[limit][];
+            ConcurrentHashMap<Configuration, Integer> claims = new ConcurrentHashMap<>();
+            int split = Math.max(MIN_SPLIT, limit / (threads * 8));
+            pool.invoke(new Expand(frontier, generated, predecessors, claims, work, 0, limit, split));
+            List<Configuration> next = pool.invoke(new Collect(frontier, generated, predecessors, claims, 0, limit,
+                    split));
+            if (solution >= 0) {
+                work.report(stats);
+                stats.finish(predecessors.size());
+                return path(predecessors, frontier.get(solution));
+            }
+            if (!next.isEmpty()) {
+                stats.levelCompleted(++depth, next.size());
+            }
+            frontier = next;
+        }
+        work.report(stats);
+        stats.finish(predecessors.size());
+        return null;
+    }
+
+    /**
+     * Walks the predecessor map back from the solution. The initial configuration is its own predecessor.
+     *
+     * @param predecessors Map of each configuration to the one it was reached from
+     * @param solution The solved configuration
+     * @return The path from the initial configuration to the solution
+     */
+    private static List<Configuration> path(Map<Configuration, Configuration> predecessors, Configuration solution) {
+        LinkedList<Configuration> path = new LinkedList<>();
+        Configuration node = solution;
+        Configuration parent = predecessors.get(node);
+        path.addFirst(node);
+        while (!parent.equals(node)) {
+            path.addFirst(parent);
+            node = parent;
+            parent = predecessors.get(node);
+        }
+        return path;
+    }
+
+    /**
+     * Shuts down the worker threads.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * First pass over a level: generate neighbors and claim unvisited ones for the lowest frontier index.
+     */
+    @SuppressWarnings("serial")
+    private static class Expand extends RecursiveAction {
+        private final List<Configuration> frontier;
+        private final Configuration[][] generated;
+        private final Map<Configuration, Configuration> predecessors;
+        private final ConcurrentHashMap<Configuration, Integer> claims;
+        private final Work work;
+        private final int from;
+        private final int to;
+        private final int split;
+
+        Expand(List<Configuration> frontier, Configuration[][] generated, Map<Configuration, Configuration> predecessors,
+               ConcurrentHashMap<Configuration, Integer> claims, Work work, int from, int to, int split) {
+            this.frontier = frontier;
+            this.generated = generated;
+            this.predecessors = predecessors;
+            this.claims = claims;
+            this.work = work;
+            this.from = from;
+            this.to = to;
+            this.split = split;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > split) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Expand(frontier, generated, predecessors, claims, work, from, middle, split),
+                        new Expand(frontier, generated, predecessors, claims, work, middle, to, split));
+                return;
+            }
+            long allocated = SolverStats.threadAllocatedBytes();
+            for (int i = from; i < to; i++) {
+                long time = System.nanoTime();
+                Configuration[] neighbors = frontier.get(i).getNeighbors().toArray(new Configuration[0]);
+                work.neighborNanos.add(System.nanoTime() - time);
+                work.generated.add(neighbors.length);
+                generated[i] = neighbors;
+                for (Configuration neighbor : neighbors) {
+                    if (!predecessors.containsKey(neighbor)) {
+                        claims.merge(neighbor, i, Math::min);
+                    }
+                }
+            }
+            work.expanded.add(to - from);
+            if (allocated >= 0) {
+                work.allocatedBytes.add(SolverStats.threadAllocatedBytes() - allocated);
+            }
+        }
+    }
+
+    /**
+     * Counters shared by the worker threads of one solve.
+     */
+    private static class Work {
+        private final LongAdder expanded = new LongAdder();
+        private final LongAdder generated = new LongAdder();
+        private final LongAdder neighborNanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        /**
+         * Adds the work done by the worker threads to the statistics of the solve.
+         *
+         * @param stats Statistics of the solve
+         */
+        void report(SolverStats stats) {
+            stats.addWork(expanded.sum(), generated.sum(), neighborNanos.sum(), allocatedBytes.sum());
+        }
+    }
+
+    /**
+     * Second pass over a level: each frontier index records and returns the neighbors it claimed, in order.
+     */
+    @SuppressWarnings("serial")
+    private static class Collect extends RecursiveTask<List<Configuration>> {
+        private final List<Configuration> frontier;
+        private final Configuration[][] generated;
+        private final Map<Configuration, Configuration> predecessors;
+        private final ConcurrentHashMap<Configuration, Integer> claims;
+        private final int from;
+        private final int to;
+        private final int split;
+
+        Collect(List<Configuration> frontier, Configuration[][] generated,
+                Map<Configuration, Configuration> predecessors, ConcurrentHashMap<Configuration, Integer> claims,
+                int from, int to, int split) {
+            this.frontier = frontier;
+            this.generated = generated;
+            this.predecessors = predecessors;
+            this.claims = claims;
+            this.from = from;
+            this.to = to;
+            this.split = split;
+        }
+
+        @Override
+        protected List<Configuration> compute() {
+            if (to - from > split) {
+                int middle = (from + to) >>> 1;
+                Collect left = new Collect(frontier, generated, predecessors, claims, from, middle, split);
+                Collect right = new Collect(frontier, generated, predecessors, claims, middle, to, split);
+                right.fork();
+                List<Configuration> owned = left.compute();
+                owned.addAll(right.join());
+                return owned;
+            }
+            List<Configuration> owned = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                Integer index = i;
+                for (Configuration neighbor : generated[i]) {
+                    if (claims.remove(neighbor, index)) {
+                        predecessors.put(neighbor, frontier.get(i));
+                        owned.add(neighbor);
+                    }
+                }
+            }
+            return owned;
+        }
+    }
+}
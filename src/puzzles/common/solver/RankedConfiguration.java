@@ -0,0 +1,43 @@
+package puzzles.common.solver;
+
+/**
+ * An interface for Configuration classes whose states can be numbered without gaps or collisions, from 0 up to the
+ * size of the index space. The solver keeps its visited bits and predecessors in plain arrays indexed by rank when
+ * the index space is small enough, without hashing or keeping configuration objects.
+ *
+ * @author John West (jrw2936)
+ */
+public interface RankedConfiguration extends Configuration {
+    /**
+     * Returns whether this configuration can be represented by {@link #rank()}. Puzzles whose states can only
+     * sometimes be ranked return false for the others.
+     *
+     * @return Whether the configuration has a rank
+     */
+    default boolean hasRank() {
+        return true;
+    }
+
+    /**
+     * Returns the number of ranks of this puzzle. Every state of the puzzle has a rank below it, though not every
+     * rank has to be a reachable state.
+     *
+     * @return Size of the index space
+     */
+    long rankSpace();
+
+    /**
+     * Returns the index of this configuration within its puzzle.
+     *
+     * @return The rank, from 0 to {@link #rankSpace()} - 1
+     */
+    long rank();
+
+    /**
+     * Rebuilds a configuration of the same puzzle from its rank.
+     *
+     * @param rank A rank previously returned by {@link #rank()}
+     * @return The configuration with that rank
+     */
+    RankedConfiguration unrank(long rank);
+}
@@ -0,0 +1,24 @@
+package puzzles.common.solver;
+
+import java.util.Collection;
+
+/**
+ * An interface for Configuration classes that can also be searched backwards from their solved states.
+ *
+ * @author John West (jrw2936)
+ */
+public interface ReversibleConfiguration extends Configuration {
+    /**
+     * Returns every solved configuration of this puzzle.
+     *
+     * @return The goal configurations
+     */
+    Collection<Configuration> getGoals();
+
+    /**
+     * Returns the configurations that reach this one in a single move.
+     *
+     * @return The predecessor configurations
+     */
+    Collection<Configuration> getPredecessors();
+}
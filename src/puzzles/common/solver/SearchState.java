@@ -0,0 +1,54 @@
+package puzzles.common.solver;
+
+/**
+ * A mutable puzzle state that is changed in place by applying and undoing moves, for engines that walk the search
+ * tree depth first and must not create a configuration object per node. Moves are encoded as ints by the
+ * implementation. The immutable {@link Configuration} of the current state can be taken at any time, for example to
+ * record a solution path.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public interface SearchState {
+    /**
+     * Replaces the contents of the buffer with every legal move from the current state.
+     *
+     * @param buffer The buffer to fill
+     */
+    void generateMoves(MoveBuffer buffer);
+
+    /**
+     * Plays a move generated from the current state.
+     *
+     * @param move The encoded move
+     */
+    void apply(int move);
+
+    /**
+     * Takes back a move, which must be the last one applied and not yet undone.
+     *
+     * @param move The encoded move
+     */
+    void undo(int move);
+
+    /**
+     * Returns whether the current state is a solution.
+     *
+     * @return Whether the puzzle is solved
+     */
+    boolean isSolution();
+
+    /**
+     * Returns a key of the current state for transposition tables. Equal states have equal keys; distinct states
+     * should collide only rarely.
+     *
+     * @return The key
+     */
+    long key();
+
+    /**
+     * Returns an immutable copy of the current state.
+     *
+     * @return The current configuration
+     */
+    Configuration toConfiguration();
+}
@@ -0,0 +1,84 @@
+package puzzles.common.solver;
+
+/**
+ * Limits placed on a single solve: a wall-clock deadline, a maximum number of distinct configurations and an
+ * approximate memory budget. Memory is estimated from the number of configurations stored, so it is as cheap to
+ * check as the configuration count.
+ *
+ * @author John West (jrw2936)
+ */
+public class SolveLimits {
+    /** Limits that never stop a solve. */
+    public static final SolveLimits NONE = new SolveLimits(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, 0);
+
+    private final long deadlineNanos;
+    private final long maxStates;
+    private final long maxBytes;
+    private final int bytesPerState;
+
+    /**
+     * Constructor for SolveLimits objects.
+     *
+     * @param deadlineNanos Value of {@link System#nanoTime()} after which the solve stops
+     * @param maxStates Largest number of distinct configurations the solve may store
+     * @param maxBytes Largest approximate memory the stored configurations may use
+     * @param bytesPerState Approximate memory used per stored configuration
+     */
+    private SolveLimits(long deadlineNanos, long maxStates, long maxBytes, int bytesPerState) {
+        this.deadlineNanos = deadlineNanos;
+        this.maxStates = maxStates;
+        this.maxBytes = maxBytes;
+        this.bytesPerState = bytesPerState;
+    }
+
+    /**
+     * Returns limits with the given time allowed from now.
+     *
+     * @param millis Milliseconds the solve may run
+     * @return The new limits
+     */
+    public SolveLimits withTimeout(long millis) {
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        return new SolveLimits(deadline, maxStates, maxBytes, bytesPerState);
+    }
+
+    /**
+     * Returns limits with the given number of distinct configurations allowed.
+     *
+     * @param states Largest number of configurations
+     * @return The new limits
+     */
+    public SolveLimits withMaxStates(long states) {
+        return new SolveLimits(deadlineNanos, states, maxBytes, bytesPerState);
+    }
+
+    /**
+     * Returns limits with the given approximate memory allowed.
+     *
+     * @param bytes Largest approximate memory
+     * @param bytesPerState Approximate memory used per stored configuration, visited entry included
+     * @return The new limits
+     */
+    public SolveLimits withMemoryBudget(long bytes, int bytesPerState) {
+        return new SolveLimits(deadlineNanos, maxStates, bytes, bytesPerState);
+    }
+
+    /**
+     * Returns whether the deadline has passed. Reads the clock, so callers check it only every few expansions.
+     *
+     * @return Whether the solve is out of time
+     */
+    boolean timedOut() {
+        return deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos > 0;
+    }
+
+    /**
+     * Returns whether storing the given number of configurations exceeds the state or memory budget.
+     *
+     * @param states Number of configurations stored
+     * @return Whether the budget is exceeded
+     */
+    boolean exceeded(long states) {
+        return states > maxStates || states * bytesPerState > maxBytes;
+    }
+}
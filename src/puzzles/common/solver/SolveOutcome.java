@@ -0,0 +1,8 @@
+package puzzles.common.solver;
+
+/**
+ * How a limited solve ended.
+ *
+ * @author John West (jrw2936)
+ */
+public enum SolveOutcome {SOLVED, UNSOLVABLE, TIMED_OUT, BUDGET_EXCEEDED, CANCELLED}
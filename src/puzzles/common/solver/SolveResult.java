@@ -0,0 +1,23 @@
+package puzzles.common.solver;
+
+import java.util.Collection;
+
+/**
+ * Result of a limited solve: how it ended, the path if one was found, and the statistics gathered up to that point.
+ *
+ * @param outcome How the solve ended
+ * @param path The shortest path when the outcome is SOLVED, otherwise null
+ * @param stats Statistics of the solve, partial when it was stopped early
+ *
+ * @author John West (jrw2936)
+ */
+public record SolveResult(SolveOutcome outcome, Collection<Configuration> path, SolverStats stats) {
+    /**
+     * Returns whether a path was found.
+     *
+     * @return Whether the outcome is SOLVED
+     */
+    public boolean isSolved() {
+        return outcome == SolveOutcome.SOLVED;
+    }
+}
@@ -9,34 +9,100 @@ import java.util.*;
  * @author John West (jrw2936@rit.edu): Modified for use with configuration objects.
  */
 public class Solver{
-    public static int totalConfigs;
-    public static int uniqueConfigs;
+    /** Number of expansions between two checks of the clock and the cancellation token. */
+    private static final int CHECK_INTERVAL = 1024;
+
+    /** Largest index space searched with dense arrays, which take a little over four bytes per rank. */
+    private static final long MAX_RANKED = 1L << 20;
 
     /**
      * @param config Initial configuration of the puzzle.
      * @return The shortest path to the intended solution.
      */
     public static Collection<Configuration> solve(Configuration config) {
-        Queue<Configuration> queue = new LinkedList<>();
-        List<Configuration> total = new ArrayList<>();
+        return solve(config, new SolverStats());
+    }
+
+    /**
+     * @param config Initial configuration of the puzzle.
+     * @param stats Statistics filled in by this solve.
+     * @return The shortest path to the intended solution.
+     */
+    public static Collection<Configuration> solve(Configuration config, SolverStats stats) {
+        return solve(config, SolveLimits.NONE, null, stats).path();
+    }
+
+    /**
+     * @param config Initial configuration of the puzzle.
+     * @param limits Deadline and budgets the solve must stay within.
+     * @param token Token that stops the solve when cancelled, or null.
+     * @return How the solve ended, with the path if one was found.
+     */
+    public static SolveResult solve(Configuration config, SolveLimits limits, CancellationToken token) {
+        return solve(config, limits, token, new SolverStats());
+    }
+
+    /**
+     * Configurations with a rank in a small enough index space are searched with dense arrays, configurations that
+     * can be encoded as a long with a primitive visited table; all others are searched with a HashMap of
+     * configuration objects. The budgets are checked on every expansion, the clock and the token every
+     * {@value #CHECK_INTERVAL} expansions.
+     *
+     * @param config Initial configuration of the puzzle.
+     * @param limits Deadline and budgets the solve must stay within.
+     * @param token Token that stops the solve when cancelled, or null.
+     * @param stats Statistics filled in by this solve.
+     * @return How the solve ended, with the path if one was found.
+     */
+    public static SolveResult solve(Configuration config, SolveLimits limits, CancellationToken token,
+                                    SolverStats stats) {
+        stats.start();
+        if (config instanceof RankedConfiguration ranked && ranked.hasRank() && ranked.rankSpace() <= MAX_RANKED) {
+            return solveRanked(ranked, limits, token, stats);
+        }
+        if (config instanceof EncodedConfiguration encoded && encoded.hasCode()) {
+            return solveEncoded(encoded, limits, token, stats);
+        }
+        Queue<Configuration> queue = new ArrayDeque<>();
         queue.add(config);
-        total.add(config);
+        stats.generated(1);
         HashMap<Configuration, Configuration> predecessors = new HashMap<>();
         predecessors.put(config, null);
+        stats.levelCompleted(0, 1);
+        int depth = 0;
+        int levelRemaining = 1;
+        int nextLevel = 0;
+        int untilCheck = CHECK_INTERVAL;
         while (!queue.isEmpty() && !queue.peek().isSolution()) {
+            if (--untilCheck == 0) {
+                untilCheck = CHECK_INTERVAL;
+            }
+            SolveOutcome stopped = check(limits, token, predecessors.size(), untilCheck == CHECK_INTERVAL);
+            if (stopped != null) {
+                stats.finish(predecessors.size());
+                return new SolveResult(stopped, null, stats);
+            }
             Configuration current = queue.remove();
-            for (Configuration neighbor : current.getNeighbors()) {
-                total.add(neighbor);
+            long time = System.nanoTime();
+            Collection<Configuration> neighbors = current.getNeighbors();
+            stats.expanded(neighbors.size(), System.nanoTime() - time);
+            for (Configuration neighbor : neighbors) {
                 if (!predecessors.containsKey(neighbor)) {
                     predecessors.put(neighbor, current);
                     queue.add(neighbor);
+                    nextLevel++;
                 }
             }
+            stats.frontier(queue.size());
+            if (--levelRemaining == 0 && nextLevel > 0) {
+                stats.levelCompleted(++depth, nextLevel);
+                levelRemaining = nextLevel;
+                nextLevel = 0;
+            }
         }
-        totalConfigs = total.size();
-        uniqueConfigs = predecessors.size();
+        stats.finish(predecessors.size());
         if (queue.isEmpty()){
-            return null;
+            return new SolveResult(SolveOutcome.UNSOLVABLE, null, stats);
         }
         else {
             List< Configuration > path = new LinkedList<>();
@@ -47,7 +113,184 @@ public class Solver{
                 path.add( 0, node);
                 node = predecessors.get(node);
             }
-            return path;
+            return new SolveResult(SolveOutcome.SOLVED, path, stats);
+        }
+    }
+
+    /**
+     * Breadth-first search over state codes. Both the queue and the predecessor table hold primitive longs; the
+     * start configuration is recorded as its own predecessor.
+     *
+     * @param config Initial configuration of the puzzle.
+     * @param limits Deadline and budgets the solve must stay within.
+     * @param token Token that stops the solve when cancelled, or null.
+     * @param stats Statistics filled in by this solve.
+     * @return How the solve ended, with the path if one was found.
+     */
+    private static SolveResult solveEncoded(EncodedConfiguration config, SolveLimits limits, CancellationToken token,
+                                            SolverStats stats) {
+        LongQueue queue = new LongQueue();
+        LongHashTable predecessors = new LongHashTable();
+        long start = config.encode();
+        queue.add(start);
+        predecessors.putIfAbsent(start, start);
+        stats.generated(1);
+        stats.levelCompleted(0, 1);
+        int depth = 0;
+        int levelRemaining = 1;
+        int nextLevel = 0;
+        int untilCheck = CHECK_INTERVAL;
+        EncodedConfiguration solution = null;
+        while (!queue.isEmpty()) {
+            if (--untilCheck == 0) {
+                untilCheck = CHECK_INTERVAL;
+            }
+            SolveOutcome stopped = check(limits, token, predecessors.size(), untilCheck == CHECK_INTERVAL);
+            if (stopped != null) {
+                stats.table(predecessors.statistics());
+                stats.finish(predecessors.size());
+                return new SolveResult(stopped, null, stats);
+            }
+            long code = queue.remove();
+            EncodedConfiguration current = config.decode(code);
+            if (current.isSolution()) {
+                solution = current;
+                break;
+            }
+            long time = System.nanoTime();
+            Collection<Configuration> neighbors = current.getNeighbors();
+            stats.expanded(neighbors.size(), System.nanoTime() - time);
+            for (Configuration neighbor : neighbors) {
+                long neighborCode = ((EncodedConfiguration) neighbor).encode();
+                if (predecessors.putIfAbsent(neighborCode, code)) {
+                    queue.add(neighborCode);
+                    nextLevel++;
+                }
+            }
+            stats.frontier(queue.size());
+            if (--levelRemaining == 0 && nextLevel > 0) {
+                stats.levelCompleted(++depth, nextLevel);
+                levelRemaining = nextLevel;
+                nextLevel = 0;
+            }
+        }
+        stats.table(predecessors.statistics());
+        stats.finish(predecessors.size());
+        if (solution == null) {
+            return new SolveResult(SolveOutcome.UNSOLVABLE, null, stats);
+        }
+        List<Configuration> path = new LinkedList<>();
+        path.add(solution);
+        long code = solution.encode();
+        long parent = predecessors.get(code, code);
+        while (parent != code) {
+            path.add(0, config.decode(parent));
+            code = parent;
+            parent = predecessors.get(code, code);
+        }
+        return new SolveResult(SolveOutcome.SOLVED, path, stats);
+    }
+
+    /**
+     * Breadth-first search over ranks. The visited states are bits of a long array and the predecessor of each state
+     * is an int array entry at its rank, both sized from the index space; the queue holds primitive ranks. The start
+     * configuration is recorded as its own predecessor.
+     *
+     * @param config Initial configuration of the puzzle.
+     * @param limits Deadline and budgets the solve must stay within.
+     * @param token Token that stops the solve when cancelled, or null.
+     * @param stats Statistics filled in by this solve.
+     * @return How the solve ended, with the path if one was found.
+     */
+    private static SolveResult solveRanked(RankedConfiguration config, SolveLimits limits, CancellationToken token,
+                                           SolverStats stats) {
+        int space = (int) config.rankSpace();
+        long[] visited = new long[(space + 63) >>> 6];
+        int[] predecessors = new int[space];
+        LongQueue queue = new LongQueue();
+        int start = (int) config.rank();
+        visited[start >>> 6] |= 1L << start;
+        predecessors[start] = start;
+        queue.add(start);
+        int states = 1;
+        stats.generated(1);
+        stats.levelCompleted(0, 1);
+        int depth = 0;
+        int levelRemaining = 1;
+        int nextLevel = 0;
+        int untilCheck = CHECK_INTERVAL;
+        RankedConfiguration solution = null;
+        while (!queue.isEmpty()) {
+            if (--untilCheck == 0) {
+                untilCheck = CHECK_INTERVAL;
+            }
+            SolveOutcome stopped = check(limits, token, states, untilCheck == CHECK_INTERVAL);
+            if (stopped != null) {
+                stats.finish(states);
+                return new SolveResult(stopped, null, stats);
+            }
+            int rank = (int) queue.remove();
+            RankedConfiguration current = config.unrank(rank);
+            if (current.isSolution()) {
+                solution = current;
+                break;
+            }
+            long time = System.nanoTime();
+            Collection<Configuration> neighbors = current.getNeighbors();
+            stats.expanded(neighbors.size(), System.nanoTime() - time);
+            for (Configuration neighbor : neighbors) {
+                int neighborRank = (int) ((RankedConfiguration) neighbor).rank();
+                long bit = 1L << neighborRank;
+                if ((visited[neighborRank >>> 6] & bit) == 0) {
+                    visited[neighborRank >>> 6] |= bit;
+                    predecessors[neighborRank] = rank;
+                    queue.add(neighborRank);
+                    states++;
+                    nextLevel++;
+                }
+            }
+            stats.frontier(queue.size());
+            if (--levelRemaining == 0 && nextLevel > 0) {
+                stats.levelCompleted(++depth, nextLevel);
+                levelRemaining = nextLevel;
+                nextLevel = 0;
+            }
+        }
+        stats.finish(states);
+        if (solution == null) {
+            return new SolveResult(SolveOutcome.UNSOLVABLE, null, stats);
+        }
+        List<Configuration> path = new LinkedList<>();
+        path.add(solution);
+        int rank = (int) solution.rank();
+        while (predecessors[rank] != rank) {
+            rank = predecessors[rank];
+            path.add(0, config.unrank(rank));
+        }
+        return new SolveResult(SolveOutcome.SOLVED, path, stats);
+    }
+
+    /**
+     * Checks whether a limited solve has to stop.
+     *
+     * @param limits Deadline and budgets of the solve
+     * @param token Token that stops the solve when cancelled, or null
+     * @param states Number of configurations stored so far
+     * @param checkClock Whether to also check the clock and the token
+     * @return The outcome to stop with, or null to continue
+     */
+    static SolveOutcome check(SolveLimits limits, CancellationToken token, long states, boolean checkClock) {
+        if (limits.exceeded(states)) {
+            return SolveOutcome.BUDGET_EXCEEDED;
+        }
+        if (checkClock) {
+            if (token != null && token.isCancelled()) {
+                return SolveOutcome.CANCELLED;
+            }
+            if (limits.timedOut()) {
+                return SolveOutcome.TIMED_OUT;
+            }
         }
+        return null;
     }
 }
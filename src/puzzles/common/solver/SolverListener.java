@@ -0,0 +1,17 @@
+package puzzles.common.solver;
+
+/**
+ * An interface for objects that follow the progress of a breadth-first solve level by level.
+ *
+ * @author John West (jrw2936)
+ */
+public interface SolverListener {
+    /**
+     * Called each time every configuration at one depth has been found.
+     *
+     * @param depth Number of moves from the initial configuration
+     * @param frontierSize Number of configurations first reached at that depth
+     * @param stats Statistics of the solve so far
+     */
+    void levelCompleted(int depth, int frontierSize, SolverStats stats);
+}
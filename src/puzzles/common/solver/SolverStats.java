@@ -0,0 +1,350 @@
+package puzzles.common.solver;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Statistics of a single solve. A new object is passed to each solve, so solves running at the same time on
+ * different threads never share counters.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public class SolverStats {
+    private final SolverListener listener;
+    private long generated;
+    private int unique;
+    private long expanded;
+    private final List<Integer> frontierSizes = new ArrayList<>();
+    private int peakFrontier;
+    private long wallNanos;
+    private long neighborNanos;
+    private long allocatedBytes = -1;
+    private int forwardExplored;
+    private int backwardExplored;
+    private int iterations;
+    private LongHashTable.Statistics tableStatistics;
+    private final List<Long> bytesRead = new ArrayList<>();
+    private final List<Long> bytesWritten = new ArrayList<>();
+    private long startNanos;
+    private long startAllocated;
+
+    /**
+     * Constructor for statistics that report each completed level to a listener.
+     *
+     * @param listener Listener notified per level, or null
+     */
+    public SolverStats(SolverListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Constructor for statistics without a listener.
+     */
+    public SolverStats() {
+        this(null);
+    }
+
+    /**
+     * Returns the number of bytes the current thread has allocated so far.
+     *
+     * @return Allocated bytes, or -1 if the JVM does not track them
+     */
+    static long threadAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Marks the start of the solve on the calling thread.
+     */
+    void start() {
+        startNanos = System.nanoTime();
+        startAllocated = threadAllocatedBytes();
+    }
+
+    /**
+     * Marks the end of the solve on the calling thread.
+     *
+     * @param unique Number of distinct configurations reached
+     */
+    void finish(int unique) {
+        this.unique = unique;
+        wallNanos = System.nanoTime() - startNanos;
+        long allocated = threadAllocatedBytes();
+        if (startAllocated >= 0 && allocated >= 0 && allocatedBytes < 0) {
+            allocatedBytes = allocated - startAllocated;
+        }
+    }
+
+    /**
+     * Records that every configuration at a depth has been found, and notifies the listener.
+     *
+     * @param depth Number of moves from the initial configuration
+     * @param frontierSize Number of configurations first reached at that depth
+     */
+    void levelCompleted(int depth, int frontierSize) {
+        frontierSizes.add(frontierSize);
+        if (listener != null) {
+            listener.levelCompleted(depth, frontierSize, this);
+        }
+    }
+
+    /**
+     * Records the current number of configurations waiting to be expanded.
+     *
+     * @param size Size of the open list or queue
+     */
+    void frontier(int size) {
+        if (size > peakFrontier) {
+            peakFrontier = size;
+        }
+    }
+
+    /**
+     * Records one expansion.
+     *
+     * @param neighbors Number of neighbors it generated
+     * @param nanos Time spent in getNeighbors
+     */
+    void expanded(int neighbors, long nanos) {
+        expanded++;
+        generated += neighbors;
+        neighborNanos += nanos;
+    }
+
+    /**
+     * Records work done outside the calling thread, for engines that expand in parallel.
+     *
+     * @param expanded Number of expansions
+     * @param generated Number of neighbors generated
+     * @param nanos Time spent in getNeighbors, summed over threads
+     * @param bytes Bytes allocated by those threads, or -1 if unknown
+     */
+    void addWork(long expanded, long generated, long nanos, long bytes) {
+        this.expanded += expanded;
+        this.generated += generated;
+        this.neighborNanos += nanos;
+        if (bytes >= 0) {
+            this.allocatedBytes = Math.max(this.allocatedBytes, 0) + bytes;
+        }
+    }
+
+    /**
+     * Records configurations generated without being expanded, such as the initial one.
+     *
+     * @param count Number of configurations
+     */
+    void generated(long count) {
+        generated += count;
+    }
+
+    /**
+     * Records how many configurations each side of a bidirectional search reached.
+     *
+     * @param forward Configurations reached from the initial configuration
+     * @param backward Configurations reached from the goals
+     */
+    void explored(int forward, int backward) {
+        forwardExplored = forward;
+        backwardExplored = backward;
+    }
+
+    /**
+     * Records one more iteration of an iterative-deepening search.
+     */
+    void iteration() {
+        iterations++;
+    }
+
+    /**
+     * Records the statistics of the primitive visited table.
+     *
+     * @param statistics Statistics of the table
+     */
+    void table(LongHashTable.Statistics statistics) {
+        tableStatistics = statistics;
+    }
+
+    /**
+     * Records the disk traffic of the level just completed, for engines that keep their levels in files.
+     *
+     * @param read Bytes read to build the level
+     * @param written Bytes written to build the level
+     */
+    void levelIo(long read, long written) {
+        bytesRead.add(read);
+        bytesWritten.add(written);
+    }
+
+    /**
+     * Returns the number of configurations generated, including the initial one.
+     *
+     * @return Total configurations
+     */
+    public long getGenerated() {
+        return this.generated;
+    }
+
+    /**
+     * Returns the number of distinct configurations reached.
+     *
+     * @return Unique configurations
+     */
+    public int getUnique() {
+        return this.unique;
+    }
+
+    /**
+     * Returns the number of configurations whose neighbors were generated.
+     *
+     * @return Expanded configurations
+     */
+    public long getExpanded() {
+        return this.expanded;
+    }
+
+    /**
+     * Returns the number of configurations first reached at each depth, starting with depth 0.
+     *
+     * @return Frontier size per depth
+     */
+    public List<Integer> getFrontierSizes() {
+        return Collections.unmodifiableList(this.frontierSizes);
+    }
+
+    /**
+     * Returns the largest number of configurations waiting to be expanded at once.
+     *
+     * @return Peak frontier size
+     */
+    public int getPeakFrontier() {
+        return this.peakFrontier;
+    }
+
+    /**
+     * Returns the elapsed time of the solve.
+     *
+     * @return Wall time in nanoseconds
+     */
+    public long getWallNanos() {
+        return this.wallNanos;
+    }
+
+    /**
+     * Returns the time spent generating neighbors, summed over threads.
+     *
+     * @return Time in getNeighbors in nanoseconds
+     */
+    public long getNeighborNanos() {
+        return this.neighborNanos;
+    }
+
+    /**
+     * Returns the bytes allocated by the solve.
+     *
+     * @return Allocated bytes, or -1 if the JVM does not track them
+     */
+    public long getAllocatedBytes() {
+        return this.allocatedBytes;
+    }
+
+    /**
+     * Returns the average bytes allocated per expansion.
+     *
+     * @return Bytes per expansion, or -1 if unknown
+     */
+    public double getBytesPerExpansion() {
+        if (allocatedBytes < 0 || expanded == 0) {
+            return -1;
+        }
+        return (double) allocatedBytes / expanded;
+    }
+
+    /**
+     * Returns how many configurations the forward side of a bidirectional search reached.
+     *
+     * @return Forward configurations, 0 for other engines
+     */
+    public int getForwardExplored() {
+        return this.forwardExplored;
+    }
+
+    /**
+     * Returns how many configurations the backward side of a bidirectional search reached.
+     *
+     * @return Backward configurations, 0 for other engines
+     */
+    public int getBackwardExplored() {
+        return this.backwardExplored;
+    }
+
+    /**
+     * Returns the number of iterations of an iterative-deepening search.
+     *
+     * @return Iterations, 0 for other engines
+     */
+    public int getIterations() {
+        return this.iterations;
+    }
+
+    /**
+     * Returns the statistics of the primitive visited table.
+     *
+     * @return Table statistics, or null if the solve did not use one
+     */
+    public LongHashTable.Statistics getTableStatistics() {
+        return this.tableStatistics;
+    }
+
+    /**
+     * Returns the bytes read from disk to build each level, empty for in-memory engines.
+     *
+     * @return Bytes read, indexed by depth
+     */
+    public List<Long> getBytesRead() {
+        return Collections.unmodifiableList(this.bytesRead);
+    }
+
+    /**
+     * Returns the bytes written to disk to build each level, empty for in-memory engines.
+     *
+     * @return Bytes written, indexed by depth
+     */
+    public List<Long> getBytesWritten() {
+        return Collections.unmodifiableList(this.bytesWritten);
+    }
+
+    /**
+     * Returns a multi-line summary of the statistics.
+     *
+     * @return Summary of the solve
+     */
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("Total Configurations: ").append(generated).append(System.lineSeparator());
+        summary.append("Unique Configurations: ").append(unique).append(System.lineSeparator());
+        summary.append("Expanded Configurations: ").append(expanded).append(System.lineSeparator());
+        summary.append("Peak Frontier: ").append(peakFrontier).append(System.lineSeparator());
+        summary.append(String.format("Time: %.3f ms (%.3f ms in getNeighbors)", wallNanos / 1e6, neighborNanos / 1e6))
+                .append(System.lineSeparator());
+        if (allocatedBytes >= 0) {
+            summary.append(String.format("Allocated: %d bytes (%.1f per expansion)", allocatedBytes,
+                    getBytesPerExpansion())).append(System.lineSeparator());
+        }
+        if (tableStatistics != null) {
+            summary.append("Visited Table: ").append(tableStatistics).append(System.lineSeparator());
+        }
+        for (int depth = 0; depth < bytesRead.size(); depth++) {
+            summary.append(String.format("Level %d: %d configurations, %d bytes read, %d bytes written", depth,
+                    frontierSizes.get(depth), bytesRead.get(depth), bytesWritten.get(depth)))
+                    .append(System.lineSeparator());
+        }
+        return summary.toString();
+    }
+}
@@ -12,19 +12,60 @@ import java.util.*;
 public class Crossing extends Solver{
 
     /**
-     * Drives the program to complete the Crossing BFS puzzle and displays all steps.
+     * Drives the program to complete the Crossing BFS puzzle and displays all steps. The puzzle is solved over a dense
+     * state index, which scales to hundreds of thousands of animals as long as the lattice of the dense index fits in
+     * {@link CrossingSolver#MAX_STATES} states, and the number of states explored per second is reported. Sizes
+     * beyond that, or a capacity out of range, are reported with the limit instead of solved. An optional number sets
+     * the boat capacity; "bfs" solves with configuration objects instead, with the boat of two.
      *
      * @param args Command line arguments
      */
     public static void main(String[] args) {
-        if (args.length < 2) {
-            System.out.println(("Usage: java Crossing pups wolves"));
+        if (args.length < 2 || args.length > 4) {
+            System.out.println(("Usage: java Crossing pups wolves [capacity] [bfs]"));
         } else {
             int pups = Integer.parseInt(args[0]);
-            int wolves = Integer.parseInt(args[args.length-1]);
-            CrossingConfig config = new CrossingConfig(pups, wolves, 0, 0, "left");
-            System.out.println("Pups: " + pups + " Wolves: " + wolves);
-            Collection<Configuration> path = Solver.solve(config);
+            int wolves = Integer.parseInt(args[1]);
+            int capacity = CrossingSolver.DEFAULT_CAPACITY;
+            boolean objects = false;
+            for (int i = 2; i < args.length; i++) {
+                if (args[i].equals("bfs")) {
+                    objects = true;
+                }
+                else {
+                    capacity = Integer.parseInt(args[i]);
+                }
+            }
+            System.out.println("Pups: " + pups + " Wolves: " + wolves + " Capacity: " + capacity);
+            Collection<Configuration> path;
+            int explored;
+            long nanos;
+            if (objects) {
+                if (capacity != CrossingSolver.DEFAULT_CAPACITY) {
+                    System.out.println("The bfs engine only supports a capacity of " +
+                            CrossingSolver.DEFAULT_CAPACITY);
+                    return;
+                }
+                SolverStats stats = new SolverStats();
+                path = Solver.solve(new CrossingConfig(pups, wolves, 0, 0, "left"), stats);
+                explored = stats.getUnique();
+                nanos = stats.getWallNanos();
+            }
+            else {
+                CrossingSolver solver;
+                try {
+                    solver = new CrossingSolver(pups, wolves, capacity);
+                }
+                catch (IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                    return;
+                }
+                path = solver.solve();
+                explored = solver.getExplored();
+                nanos = solver.getNanos();
+            }
+            System.out.printf("States: %d in %.3f ms (%.0f states/s)%n", explored, nanos / 1e6,
+                    explored / (nanos / 1e9));
             if (path != null){
                 ArrayList<Configuration> finalPath = new ArrayList<>(path);
                 for (int i = 0; i < path.size(); i++){
@@ -1,31 +1,126 @@
 package puzzles.crossing;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.RankedConfiguration;
 
 import java.util.Collection;
 import java.util.HashSet;
 
 /**
- * Configuration class used to solve the Crossing puzzle.
+ * Configuration class used to solve the Crossing puzzle. The animals on the left and the side of the boat determine
+ * the whole state, so states are ranked densely by them, the same index {@link CrossingSolver} uses.
  *
  * @author John West (jrw2936@rit.edu)
  */
-public class CrossingConfig implements Configuration {
+public class CrossingConfig implements RankedConfiguration {
     private final int leftPups;
     private final int rightPups;
     private final int leftWolves;
     private final int rightWolves;
-    private final String boat;
+    private final boolean boatLeft;
 
     /**
-     * Constructor for Crossing configurations.
+     * Constructor for Crossing configurations. The side of the boat is only parsed here; every other method reads
+     * it as a boolean.
+     *
+     * @param leftPups Pups on the left
+     * @param leftWolves Wolves on the left
+     * @param rightPups Pups on the right
+     * @param rightWolves Wolves on the right
+     * @param boat Side of the boat, "left" or "right"
      */
     public CrossingConfig(int leftPups, int leftWolves, int rightPups, int rightWolves, String boat) {
+        this(leftPups, leftWolves, rightPups, rightWolves, boat.equals("left"));
+    }
+
+    /**
+     * Constructor for Crossing configurations with the side of the boat as a boolean.
+     *
+     * @param leftPups Pups on the left
+     * @param leftWolves Wolves on the left
+     * @param rightPups Pups on the right
+     * @param rightWolves Wolves on the right
+     * @param boatLeft Whether the boat is on the left
+     */
+    private CrossingConfig(int leftPups, int leftWolves, int rightPups, int rightWolves, boolean boatLeft) {
         this.leftPups = leftPups;
         this.leftWolves = leftWolves;
         this.rightPups = rightPups;
         this.rightWolves = rightWolves;
-        this.boat = boat;
+        this.boatLeft = boatLeft;
+    }
+
+    /**
+     * Returns the number of pups on the left side.
+     *
+     * @return Pups on the left
+     */
+    public int getLeftPups() {
+        return this.leftPups;
+    }
+
+    /**
+     * Returns the number of wolves on the left side.
+     *
+     * @return Wolves on the left
+     */
+    public int getLeftWolves() {
+        return this.leftWolves;
+    }
+
+    /**
+     * Returns the side the boat is on.
+     *
+     * @return "left" or "right"
+     */
+    public String getBoat() {
+        return this.boatLeft ? "left" : "right";
+    }
+
+    /**
+     * Returns whether the boat is on the left side.
+     *
+     * @return Whether the boat is on the left
+     */
+    public boolean isBoatLeft() {
+        return this.boatLeft;
+    }
+
+    /**
+     * Returns the number of states of a puzzle with the same animals: every split of the pups and of the wolves,
+     * with the boat on either side.
+     *
+     * @return Size of the index space
+     */
+    @Override
+    public long rankSpace() {
+        return 2L * (leftPups + rightPups + 1) * (leftWolves + rightWolves + 1);
+    }
+
+    /**
+     * Returns the index of this state from the animals on the left and the side of the boat.
+     *
+     * @return The rank
+     */
+    @Override
+    public long rank() {
+        return ((long) leftWolves * (leftPups + rightPups + 1) + leftPups) * 2 + (boatLeft ? 0 : 1);
+    }
+
+    /**
+     * Rebuilds the state of the same puzzle with a rank.
+     *
+     * @param rank A rank previously returned by {@link #rank()}
+     * @return The configuration with that rank
+     */
+    @Override
+    public CrossingConfig unrank(long rank) {
+        int pups = leftPups + rightPups;
+        int split = (int) (rank >>> 1);
+        int pupsLeft = split % (pups + 1);
+        int wolvesLeft = split / (pups + 1);
+        return new CrossingConfig(pupsLeft, wolvesLeft, pups - pupsLeft, leftWolves + rightWolves - wolvesLeft,
+                (rank & 1) == 0);
     }
 
     /**
@@ -35,7 +130,7 @@ public class CrossingConfig implements Configuration {
      */
     @Override
     public String toString() {
-        if (boat.equals("left")){
+        if (boatLeft){
             return ("(BOAT)" +
                     " left [" + leftPups + ", " + leftWolves + "] right [" + rightPups + ", " + rightWolves + "]");
         }
@@ -46,14 +141,13 @@ public class CrossingConfig implements Configuration {
     }
 
     /**
-     * Returns the string hashcode of the configuration, generated by multiplying each value by large numbers and adding
-     * them.
+     * Returns a hashcode of the configuration, combining the counts on both sides and the side of the boat.
      *
-     * @return The string hashcode of the configuration.
+     * @return The hashcode of the configuration.
      */
     @Override
     public int hashCode() {
-        return leftWolves * 783 + rightWolves * 513 + leftPups * 345 + rightPups * 192 + boat.hashCode();
+        return (((leftPups * 31 + leftWolves) * 31 + rightPups) * 31 + rightWolves) * 2 + (boatLeft ? 0 : 1);
     }
 
     /**
@@ -63,7 +157,7 @@ public class CrossingConfig implements Configuration {
      */
 
     public boolean isSolution() {
-        return leftPups == 0 && leftWolves == 0 && boat.equals("right");
+        return leftPups == 0 && leftWolves == 0 && !boatLeft;
     }
 
     /**
@@ -78,7 +172,7 @@ public class CrossingConfig implements Configuration {
         if (other instanceof CrossingConfig otherConfig) {
             result = this.leftPups == otherConfig.leftPups && this.leftWolves == otherConfig.leftWolves
                     && this.rightPups == otherConfig.rightPups && this.rightWolves == otherConfig.rightWolves
-                    && this.boat.equals(otherConfig.boat);
+                    && this.boatLeft == otherConfig.boatLeft;
         }
         return result;
     }
@@ -93,34 +187,34 @@ public class CrossingConfig implements Configuration {
         HashSet<Configuration> neighbors = new HashSet<>();
 
         /* Special cases for when the boat is on the left and there's enough for one trip left */
-        if (leftWolves == 0 && leftPups == 2 && boat.equals("left")) {
-            neighbors.add(new CrossingConfig(0, leftWolves, rightPups + 2, rightWolves, "right"));
+        if (leftWolves == 0 && leftPups == 2 && boatLeft) {
+            neighbors.add(new CrossingConfig(0, leftWolves, rightPups + 2, rightWolves, false));
         }
-        if (leftWolves == 0 && leftPups == 1 && boat.equals("left")) {
-            neighbors.add(new CrossingConfig(0, leftWolves, rightPups + 1, rightWolves, "right"));
+        if (leftWolves == 0 && leftPups == 1 && boatLeft) {
+            neighbors.add(new CrossingConfig(0, leftWolves, rightPups + 1, rightWolves, false));
         }
-        if (leftWolves == 1 && leftPups == 0 && boat.equals("left")){
-            neighbors.add(new CrossingConfig(leftPups, 0, rightPups, rightWolves + 1, "right"));
+        if (leftWolves == 1 && leftPups == 0 && boatLeft){
+            neighbors.add(new CrossingConfig(leftPups, 0, rightPups, rightWolves + 1, false));
         }
 
         /* Handles pups on the left */
-        if (leftPups >= 2 && boat.equals("left")){
+        if (leftPups >= 2 && boatLeft){
             neighbors.add(new CrossingConfig(leftPups - 2, leftWolves, rightPups + 2, rightWolves,
-                    "right"));
+                    false));
         }
-        if (rightPups >= 1 && boat.equals("right")){
+        if (rightPups >= 1 && !boatLeft){
             neighbors.add(new CrossingConfig(leftPups + 1, leftWolves, rightPups - 1, rightWolves,
-                    "left"));
+                    true));
         }
 
         /* Handles wolves on the left */
-        if (leftWolves >= 1 && rightPups >=1 && boat.equals("right")){
+        if (leftWolves >= 1 && rightPups >=1 && !boatLeft){
             neighbors.add(new CrossingConfig(leftPups + 1, leftWolves, rightPups -1, rightWolves,
-                    "left"));
+                    true));
         }
-        if (leftWolves >= 1 && rightPups >=1 && boat.equals("left")){
+        if (leftWolves >= 1 && rightPups >=1 && boatLeft){
             neighbors.add(new CrossingConfig(leftPups, leftWolves - 1, rightPups, rightWolves+ 1,
-                    "right"));
+                    false));
         }
 
         return neighbors;
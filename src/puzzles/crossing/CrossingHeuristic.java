@@ -0,0 +1,37 @@
+package puzzles.crossing;
+
+import puzzles.common.solver.Heuristic;
+
+/**
+ * Heuristic for the Crossing puzzle. A trip to the right carries at most two animals and every trip back brings a
+ * pup along, so each round trip moves at most one animal across in net terms, except the last crossing which may
+ * carry two.
+ *
+ * @author John West (jrw2936)
+ */
+public class CrossingHeuristic implements Heuristic<CrossingConfig> {
+    /**
+     * Returns a lower bound on the crossings left.
+     *
+     * @param config The configuration to estimate
+     * @return The estimated number of crossings
+     */
+    @Override
+    public int estimate(CrossingConfig config) {
+        int animals = config.getLeftPups() + config.getLeftWolves();
+        if (config.isBoatLeft()) {
+            return fromLeft(animals);
+        }
+        return animals == 0 ? 0 : 1 + fromLeft(animals + 1);
+    }
+
+    /**
+     * Returns the fewest crossings that can move the animals across when the boat starts on the left.
+     *
+     * @param animals Number of animals on the left
+     * @return The estimated number of crossings
+     */
+    private static int fromLeft(int animals) {
+        return animals <= 2 ? 1 : 2 * animals - 3;
+    }
+}
@@ -0,0 +1,231 @@
+package puzzles.crossing;
+
+import puzzles.common.solver.Configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Breadth-first solver for the Crossing puzzle over a dense state index. A state is fully described by the pups and
+ * wolves still on the left and the side of the boat, so every state maps to an index into a lattice of
+ * {@code 2 * (pups + 1) * (wolves + 1)} cells. A single byte per cell records how the state was first reached, which
+ * doubles as the visited flag, and the path is rebuilt backwards from those moves. No configuration objects are
+ * created until the path is.
+ * <p>
+ * The boat follows the rules of {@link CrossingConfig}, with a configurable capacity: a trip to the right carries
+ * between two pups and the capacity, a single pup when it is the last animal, or a single wolf when a pup is on the
+ * right to bring the boat back or it is the last animal; a trip back to the left carries one pup. With a capacity of
+ * two the moves are exactly those of {@link CrossingConfig}. The lattice grows with the product of the two counts,
+ * so hundreds of thousands of animals can be solved as long as that product stays within {@value #MAX_STATES}
+ * states.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public class CrossingSolver {
+    /** Largest number of lattice cells, the longest byte array. */
+    public static final long MAX_STATES = Integer.MAX_VALUE - 8;
+
+    /** Capacity of the boat in {@link CrossingConfig}. */
+    public static final int DEFAULT_CAPACITY = 2;
+
+    /** Largest boat capacity whose moves fit in a byte. */
+    public static final int MAX_CAPACITY = Byte.MAX_VALUE - 3;
+
+    /** Move of a state not reached yet. */
+    private static final byte UNVISITED = 0;
+
+    /** Move of the initial state. */
+    private static final byte START = 1;
+
+    /** Move of a pup rowing back to the left. */
+    private static final byte PUP_BACK = 2;
+
+    /** Move of a wolf crossing to the right; a crossing of n pups is recorded as {@code WOLF + n}. */
+    private static final byte WOLF = 3;
+
+    private final int pups;
+    private final int wolves;
+    private final int capacity;
+    private int explored;
+    private long nanos;
+
+    /**
+     * Constructor for a solver of a puzzle size.
+     *
+     * @param pups Number of pups, all starting on the left
+     * @param wolves Number of wolves, all starting on the left
+     * @param capacity Most pups the boat carries across at once
+     */
+    public CrossingSolver(int pups, int wolves, int capacity) {
+        if (pups < 0 || wolves < 0) {
+            throw new IllegalArgumentException("Negative animal count: " + pups + " pups, " + wolves + " wolves");
+        }
+        if (capacity < DEFAULT_CAPACITY || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Boat capacity must be between " + DEFAULT_CAPACITY + " and " +
+                    MAX_CAPACITY + ": " + capacity);
+        }
+        if (2L * (pups + 1) * (wolves + 1) > MAX_STATES) {
+            throw new IllegalArgumentException("Too many states for a dense index: " + pups + " pups and " + wolves +
+                    " wolves need 2 * (pups + 1) * (wolves + 1) = " + 2L * (pups + 1) * (wolves + 1) +
+                    " states, at most " + MAX_STATES);
+        }
+        this.pups = pups;
+        this.wolves = wolves;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Constructor for a solver with the boat of {@link CrossingConfig}.
+     *
+     * @param pups Number of pups, all starting on the left
+     * @param wolves Number of wolves, all starting on the left
+     */
+    public CrossingSolver(int pups, int wolves) {
+        this(pups, wolves, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Finds a shortest sequence of crossings moving every animal to the right.
+     *
+     * @return The configurations along the path, or null if there is none
+     */
+    public List<Configuration> solve() {
+        long begin = System.nanoTime();
+        byte[] moves = new byte[2 * (pups + 1) * (wolves + 1)];
+        int start = index(pups, wolves, true);
+        int goal = index(0, 0, false);
+        moves[start] = START;
+        explored = 1;
+        int[] level = {start};
+        int levelSize = 1;
+        int[] next = new int[1024];
+        while (levelSize > 0 && moves[goal] == UNVISITED) {
+            int nextSize = 0;
+            for (int i = 0; i < levelSize; i++) {
+                int state = level[i];
+                int leftPups = (state >>> 1) % (pups + 1);
+                int leftWolves = (state >>> 1) / (pups + 1);
+                if ((state & 1) == 0) {
+                    if (next.length - nextSize < capacity + 1) {
+                        next = Arrays.copyOf(next, Math.max(next.length * 2, nextSize + capacity + 1));
+                    }
+                    for (int carried = 2; carried <= Math.min(capacity, leftPups); carried++) {
+                        nextSize = visit(moves, next, nextSize, index(leftPups - carried, leftWolves, false),
+                                (byte) (WOLF + carried));
+                    }
+                    if (leftPups == 1 && leftWolves == 0) {
+                        nextSize = visit(moves, next, nextSize, index(0, 0, false), (byte) (WOLF + 1));
+                    }
+                    if (leftWolves >= 1 && (leftPups < pups || (leftWolves == 1 && leftPups == 0))) {
+                        nextSize = visit(moves, next, nextSize, index(leftPups, leftWolves - 1, false), WOLF);
+                    }
+                }
+                else if (leftPups < pups) {
+                    if (nextSize == next.length) {
+                        next = Arrays.copyOf(next, next.length * 2);
+                    }
+                    nextSize = visit(moves, next, nextSize, index(leftPups + 1, leftWolves, true), PUP_BACK);
+                }
+            }
+            int[] swap = level;
+            level = next;
+            next = swap.length >= 1024 ? swap : new int[1024];
+            levelSize = nextSize;
+        }
+        nanos = System.nanoTime() - begin;
+        return moves[goal] == UNVISITED ? null : path(moves, goal);
+    }
+
+    /**
+     * Marks a state as reached and queues it, unless it was reached before.
+     *
+     * @param moves Move that first reached each state
+     * @param next States of the next level
+     * @param nextSize Number of states in the next level
+     * @param state The state reached
+     * @param move The move that reached it
+     * @return The new number of states in the next level
+     */
+    private int visit(byte[] moves, int[] next, int nextSize, int state, byte move) {
+        if (moves[state] != UNVISITED) {
+            return nextSize;
+        }
+        moves[state] = move;
+        explored++;
+        next[nextSize] = state;
+        return nextSize + 1;
+    }
+
+    /**
+     * Rebuilds the path by undoing the recorded moves from the goal back to the start.
+     *
+     * @param moves Move that first reached each state
+     * @param goal Index of the solved state
+     * @return The configurations along the path
+     */
+    private List<Configuration> path(byte[] moves, int goal) {
+        LinkedList<Configuration> path = new LinkedList<>();
+        int state = goal;
+        while (true) {
+            int leftPups = (state >>> 1) % (pups + 1);
+            int leftWolves = (state >>> 1) / (pups + 1);
+            boolean boatLeft = (state & 1) == 0;
+            path.addFirst(new CrossingConfig(leftPups, leftWolves, pups - leftPups, wolves - leftWolves,
+                    boatLeft ? "left" : "right"));
+            byte move = moves[state];
+            if (move == START) {
+                return new ArrayList<>(path);
+            }
+            else if (move == PUP_BACK) {
+                state = index(leftPups - 1, leftWolves, false);
+            }
+            else if (move == WOLF) {
+                state = index(leftPups, leftWolves + 1, true);
+            }
+            else {
+                state = index(leftPups + move - WOLF, leftWolves, true);
+            }
+        }
+    }
+
+    /**
+     * Returns the dense index of a state.
+     *
+     * @param leftPups Pups on the left
+     * @param leftWolves Wolves on the left
+     * @param boatLeft Whether the boat is on the left
+     * @return Index into the lattice
+     */
+    private int index(int leftPups, int leftWolves, boolean boatLeft) {
+        return (leftWolves * (pups + 1) + leftPups) * 2 + (boatLeft ? 0 : 1);
+    }
+
+    /**
+     * Returns the number of states reached by the last solve.
+     *
+     * @return Unique states
+     */
+    public int getExplored() {
+        return this.explored;
+    }
+
+    /**
+     * Returns the time taken by the last solve, without rebuilding the path.
+     *
+     * @return Wall time in nanoseconds
+     */
+    public long getNanos() {
+        return this.nanos;
+    }
+
+    /**
+     * Returns the boat capacity.
+     *
+     * @return Most pups carried across at once
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+}
@@ -12,11 +12,11 @@ import puzzles.common.Observer;
 import puzzles.jam.model.Car;
 import puzzles.jam.model.Coordinates;
 import puzzles.jam.model.JamConfig;
+import puzzles.jam.model.JamLoader;
 import puzzles.jam.model.JamModel;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -66,8 +66,10 @@ public class JamGUI extends Application  implements Observer<JamModel, String>
         else if (model.getGameState() == JamModel.GameState.WON){
             update(this.model,"Game won. Please load a new file.");
         }
+        else if (model.nextStep() == null) {
+            update(this.model, "No hint available (" + model.getLastHintOutcome() + ").");
+        }
         else {
-            model.setCurrentConfig(model.nextStep());
             update(this.model, "Advancing to the next step.");
         }
     }
@@ -82,31 +84,31 @@ public class JamGUI extends Application  implements Observer<JamModel, String>
     }
 
     /**
-     * Used for reloading the file on reset or opening a new file.
+     * Describes how good the last move was, when the puzzle has been analysed.
+     *
+     * @return Feedback to append to the move message, empty if none is available
+     */
+    private String moveFeedback(){
+        if (!model.hasDistances() || model.getMovesRemaining() < 0) {
+            return "";
+        }
+        return (model.isLastMoveOptimal() ? " (optimal, " : " (not optimal, ") + model.getMovesRemaining() +
+                " moves left)";
+    }
+
+    /**
+     * Used for reloading the file on reset or opening a new file. Puzzles already parsed come from the loader's
+     * cache, and a file that cannot be read or is malformed leaves the current puzzle in place.
      *
      * @param filename Name of file
-     * @throws IOException
+     * @throws IOException If the file cannot be read or is malformed
      */
     public void load(String filename) throws IOException {
+        JamConfig config = JamLoader.load(Path.of(filename));
         this.filename = filename;
         this.model.setGameState(JamModel.GameState.ONGOING);
-        BufferedReader br = new BufferedReader(new FileReader(filename));
-        String[] dimensions = br.readLine().split(" ");
-        int numCars = Integer.parseInt(br.readLine());
-        ArrayList<Car> cars = new ArrayList<>();
-        for (int i = 0; i < numCars; i++) {
-            String nextLine = br.readLine();
-            if (nextLine != null) {
-                String[] temp = nextLine.split(" ");
-                cars.add(new Car(temp[0].charAt(0),
-                        new Coordinates(Integer.parseInt(temp[1]), Integer.parseInt(temp[2])),
-                        new Coordinates(Integer.parseInt(temp[3]), Integer.parseInt(temp[4]))));
-            }
-        }
-        this.model.setCurrentConfig(new JamConfig(Integer.parseInt(dimensions[0]),
-                Integer.parseInt(dimensions[1]),
-                numCars,
-                cars));
+        this.model.setCurrentConfig(config);
+        this.model.prepareHints(filename);
         update(this.model, "Loaded: " + filename);
     }
 
@@ -181,10 +183,12 @@ public class JamGUI extends Application  implements Observer<JamModel, String>
                 int finalJ = j;
                 int finalI = i;
                 temp.setOnAction(event -> select(finalI, finalJ));
-                if (this.model.getCurrentConfig().getGrid()[i][j] !='.'){
+                if (this.model.getCurrentConfig().getGrid()[i][j] !='.' &&
+                        this.model.getCurrentConfig().getGrid()[i][j] != JamConfig.WALL){
                     ArrayList<Car> tempCars = this.model.getCurrentConfig().getCars();
                     String color = COLORS.get(tempCars.indexOf(
-                            this.model.getCurrentConfig().selectCar(this.model.getCurrentConfig().getGrid()[i][j])));
+                            this.model.getCurrentConfig().selectCar(this.model.getCurrentConfig().getGrid()[i][j]))
+                            % COLORS.size());
                     temp.setStyle(color);
 
                 }
@@ -225,7 +229,7 @@ public class JamGUI extends Application  implements Observer<JamModel, String>
             }
 
             else if (this.model.getGameState() == JamModel.GameState.ONGOING){
-                if (grid[row][col] == '.'){
+                if (grid[row][col] == '.' || grid[row][col] == JamConfig.WALL){
                     update(this.model, "No car selected at (" + row + ", " + col + ")");
                 }
 
@@ -256,7 +260,7 @@ public class JamGUI extends Application  implements Observer<JamModel, String>
                     this.model.moveCar(currentCar, new Coordinates(row, col));
                     this.model.setGameState(JamModel.GameState.ONGOING);
                     update(this.model, "Car moved from " + initialSelection.toString() +
-                            " to " + "(" + row + ", " + col + ")");
+                            " to " + "(" + row + ", " + col + ")" + moveFeedback());
                 }
             }
         }
@@ -286,10 +290,12 @@ public class JamGUI extends Application  implements Observer<JamModel, String>
                 int finalJ = j;
                 int finalI = i;
                 temp.setOnAction(event -> select(finalI, finalJ));
-                if (this.model.getCurrentConfig().getGrid()[i][j] !='.'){
+                if (this.model.getCurrentConfig().getGrid()[i][j] !='.' &&
+                        this.model.getCurrentConfig().getGrid()[i][j] != JamConfig.WALL){
                     ArrayList<Car> tempCars = this.model.getCurrentConfig().getCars();
                     String color = COLORS.get(tempCars.indexOf(
-                            this.model.getCurrentConfig().selectCar(this.model.getCurrentConfig().getGrid()[i][j])));
+                            this.model.getCurrentConfig().selectCar(this.model.getCurrentConfig().getGrid()[i][j]))
+                            % COLORS.size());
                     temp.setStyle(color);
                 }
             }
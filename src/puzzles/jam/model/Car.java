@@ -11,8 +11,8 @@ public class Car {
     final char name;
     final Coordinates start;
     final Coordinates end;
-    boolean horizontal;
-    int length;
+    final boolean horizontal;
+    final int length;
 
     /**
      * Constructor for Car objects.
@@ -22,16 +22,26 @@ public class Car {
      * @param end The ending coordinates of the car
      */
     public Car(char name, Coordinates start, Coordinates end){
+        this(name, start, end, start.row() == end.row(),
+                start.row() == end.row() ? end.col() + 1 - start.col() : end.row() + 1 - start.row());
+    }
+
+    /**
+     * Constructor for Car objects whose orientation and length are already known, used by the placement tables of
+     * {@link JamBoard}.
+     *
+     * @param name Character representation of the car
+     * @param start The starting coordinates of the car
+     * @param end The ending coordinates of the car
+     * @param horizontal Whether the car is horizontal
+     * @param length Number of cells the car covers
+     */
+    Car(char name, Coordinates start, Coordinates end, boolean horizontal, int length){
         this.name = name;
         this.start = start;
         this.end = end;
-        this.horizontal = start.row() == end.row();
-        if (horizontal){
-            this.length = (end.col() + 1) - start.col();
-        }
-        else {
-            this.length = start.row() + 1 - end.col();
-        }
+        this.horizontal = horizontal;
+        this.length = length;
     }
 
     /**
@@ -61,6 +71,15 @@ public class Car {
         return this.horizontal;
     }
 
+    /**
+     * Returns the number of cells the car covers.
+     *
+     * @return Length of the car.
+     */
+    public int getLength(){
+        return this.length;
+    }
+
     /**
      * Returns the name, representing the character representation of the car.
      *
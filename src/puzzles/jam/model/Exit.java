@@ -0,0 +1,52 @@
+package puzzles.jam.model;
+
+/**
+ * Edge of a Jam board the car 'X' has to reach. Puzzle files without an exit line use {@link #RIGHT}.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public enum Exit {
+    /** The leftmost column. */
+    LEFT,
+    /** The rightmost column. */
+    RIGHT,
+    /** The top row. */
+    TOP,
+    /** The bottom row. */
+    BOTTOM;
+
+    /**
+     * Returns whether the exit is on a side edge, so that a horizontal car drives out through it.
+     *
+     * @return Whether the exit is the left or right edge
+     */
+    public boolean isHorizontal() {
+        return this == LEFT || this == RIGHT;
+    }
+
+    /**
+     * Returns whether the exit lies at the far end of the lanes that run towards it, the bottom or right edge.
+     *
+     * @return Whether the exit is the right or bottom edge
+     */
+    public boolean isForward() {
+        return this == RIGHT || this == BOTTOM;
+    }
+
+    /**
+     * Returns whether a car touches the exit edge.
+     *
+     * @param car The car
+     * @param rows Number of rows on the board
+     * @param cols Number of columns on the board
+     * @return Whether the car covers a cell of the exit edge
+     */
+    public boolean isReached(Car car, int rows, int cols) {
+        return switch (this) {
+            case LEFT -> car.start.col() == 0;
+            case RIGHT -> car.end.col() == cols - 1;
+            case TOP -> car.start.row() == 0;
+            case BOTTOM -> car.end.row() == rows - 1;
+        };
+    }
+}
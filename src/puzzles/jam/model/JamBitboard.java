@@ -0,0 +1,286 @@
+package puzzles.jam.model;
+
+/**
+ * Occupancy of a Jam board as bitboards. Every cell is stored twice: once in row-major order, where each row is a
+ * run of consecutive bits, and once in column-major order, where each column is. Whatever the orientation of a car,
+ * its whole lane can therefore be read as a single long with bit {@code p} standing for position {@code p}, and how
+ * far the car can slide either way follows from a shift, a mask and a leading or trailing zero count. Boards of up
+ * to 64 cells fit in one word per order, and cars are placed and removed with the per-car masks precomputed by
+ * {@link JamBoard}; larger boards use as many words as they need. Lanes are limited to 64 cells.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public final class JamBitboard {
+    private final int rows;
+    private final int cols;
+    private final long[] rowMajor;
+    private final long[] columnMajor;
+    private final long rowMask;
+    private final long columnMask;
+
+    /**
+     * Constructor for an empty board.
+     *
+     * @param rows Number of rows
+     * @param cols Number of columns
+     */
+    public JamBitboard(int rows, int cols) {
+        if (rows < 1 || cols < 1 || rows > Long.SIZE || cols > Long.SIZE) {
+            throw new IllegalArgumentException("Unsupported board size: " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        int words = (rows * cols + Long.SIZE - 1) / Long.SIZE;
+        this.rowMajor = new long[words];
+        this.columnMajor = new long[words];
+        this.rowMask = mask(cols);
+        this.columnMask = mask(rows);
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param other The board to copy
+     */
+    public JamBitboard(JamBitboard other) {
+        this.rows = other.rows;
+        this.cols = other.cols;
+        this.rowMajor = other.rowMajor.clone();
+        this.columnMajor = other.columnMajor.clone();
+        this.rowMask = other.rowMask;
+        this.columnMask = other.columnMask;
+    }
+
+    /**
+     * Builds the occupancy of a packed state.
+     *
+     * @param config The state
+     * @return Bitboards with every wall and car placed
+     */
+    public static JamBitboard of(PackedJamConfig config) {
+        JamBoard board = config.getBoard();
+        JamBitboard occupancy = board.emptyOccupancy();
+        for (int i = 0; i < board.getNumCars(); i++) {
+            occupancy.place(board, i, config.offset(i));
+        }
+        return occupancy;
+    }
+
+    /**
+     * Returns a mask of the lowest bits.
+     *
+     * @param length Number of bits, at most 64
+     * @return Mask with the given number of low bits set
+     */
+    private static long mask(int length) {
+        return length == Long.SIZE ? -1L : (1L << length) - 1;
+    }
+
+    /**
+     * Marks a car's cells as occupied.
+     *
+     * @param board Board the car belongs to
+     * @param car Index of the car
+     * @param offset Position of the car along its lane
+     */
+    public void place(JamBoard board, int car, int offset) {
+        if (board.fitsWord()) {
+            rowMajor[0] |= board.rowMask(car) << rowShift(board, car, offset);
+            columnMajor[0] |= board.columnMask(car) << columnShift(board, car, offset);
+        }
+        else {
+            fill(board.isHorizontal(car), board.getLane(car), offset, board.getLength(car), true);
+        }
+    }
+
+    /**
+     * Marks a car's cells as free.
+     *
+     * @param board Board the car belongs to
+     * @param car Index of the car
+     * @param offset Position of the car along its lane
+     */
+    public void remove(JamBoard board, int car, int offset) {
+        if (board.fitsWord()) {
+            rowMajor[0] &= ~(board.rowMask(car) << rowShift(board, car, offset));
+            columnMajor[0] &= ~(board.columnMask(car) << columnShift(board, car, offset));
+        }
+        else {
+            fill(board.isHorizontal(car), board.getLane(car), offset, board.getLength(car), false);
+        }
+    }
+
+    /**
+     * Returns how far a car's row-major mask moves when the car is at the given offset.
+     *
+     * @param board Board the car belongs to
+     * @param car Index of the car
+     * @param offset Position of the car along its lane
+     * @return Shift of the row-major mask
+     */
+    private static int rowShift(JamBoard board, int car, int offset) {
+        return board.isHorizontal(car) ? offset : offset * board.getCols();
+    }
+
+    /**
+     * Returns how far a car's column-major mask moves when the car is at the given offset.
+     *
+     * @param board Board the car belongs to
+     * @param car Index of the car
+     * @param offset Position of the car along its lane
+     * @return Shift of the column-major mask
+     */
+    private static int columnShift(JamBoard board, int car, int offset) {
+        return board.isHorizontal(car) ? offset * board.getRows() : offset;
+    }
+
+    /**
+     * Marks consecutive cells of a lane.
+     *
+     * @param horizontal Whether the lane is a row
+     * @param lane Row or column of the cells
+     * @param from First position along the lane
+     * @param length Number of cells
+     * @param occupied Whether the cells become occupied or free
+     */
+    public void fill(boolean horizontal, int lane, int from, int length, boolean occupied) {
+        long[] along = horizontal ? rowMajor : columnMajor;
+        long[] across = horizontal ? columnMajor : rowMajor;
+        int laneLength = horizontal ? cols : rows;
+        int crossLength = horizontal ? rows : cols;
+        setRun(along, lane * laneLength + from, length, occupied);
+        for (int position = from; position < from + length; position++) {
+            int index = position * crossLength + lane;
+            if (occupied) {
+                across[index >>> 6] |= 1L << index;
+            }
+            else {
+                across[index >>> 6] &= ~(1L << index);
+            }
+        }
+    }
+
+    /**
+     * Returns whether a cell is occupied.
+     *
+     * @param row Row of the cell
+     * @param col Column of the cell
+     * @return Whether a car covers the cell
+     */
+    public boolean isOccupied(int row, int col) {
+        int index = row * cols + col;
+        return (rowMajor[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the occupancy of a whole lane.
+     *
+     * @param horizontal Whether the lane is a row
+     * @param lane Row or column index
+     * @return Bit {@code p} set when position {@code p} of the lane is occupied
+     */
+    public long lane(boolean horizontal, int lane) {
+        if (horizontal) {
+            return extract(rowMajor, lane * cols, cols) & rowMask;
+        }
+        return extract(columnMajor, lane * rows, rows) & columnMask;
+    }
+
+    /**
+     * Returns how many free cells lie directly before a position of a lane.
+     *
+     * @param horizontal Whether the lane is a row
+     * @param lane Row or column index
+     * @param start First cell of the car, towards the top or left
+     * @return Number of cells the car can slide towards the top or left
+     */
+    public int freeBefore(boolean horizontal, int lane, int start) {
+        return freeBefore(lane(horizontal, lane), start);
+    }
+
+    /**
+     * Returns how many free cells lie directly after a position of a lane.
+     *
+     * @param horizontal Whether the lane is a row
+     * @param lane Row or column index
+     * @param end Last cell of the car, towards the bottom or right
+     * @return Number of cells the car can slide towards the bottom or right
+     */
+    public int freeAfter(boolean horizontal, int lane, int end) {
+        return freeAfter(lane(horizontal, lane), end, horizontal ? cols : rows);
+    }
+
+    /**
+     * Returns how many free cells lie directly before a position, given the occupancy of its lane.
+     *
+     * @param laneBits Occupancy of the lane, as returned by {@link #lane(boolean, int)}
+     * @param start First cell of the car
+     * @return Number of free cells before the car
+     */
+    public static int freeBefore(long laneBits, int start) {
+        long before = laneBits & mask(start);
+        return before == 0 ? start : start - (Long.SIZE - Long.numberOfLeadingZeros(before));
+    }
+
+    /**
+     * Returns how many free cells lie directly after a position, given the occupancy of its lane.
+     *
+     * @param laneBits Occupancy of the lane, as returned by {@link #lane(boolean, int)}
+     * @param end Last cell of the car
+     * @param laneLength Number of cells in the lane
+     * @return Number of free cells after the car
+     */
+    public static int freeAfter(long laneBits, int end, int laneLength) {
+        int remaining = laneLength - end - 1;
+        if (remaining <= 0) {
+            return 0;
+        }
+        return Math.min(remaining, Long.numberOfTrailingZeros(laneBits >>> (end + 1)));
+    }
+
+    /**
+     * Reads up to 64 consecutive bits that may straddle two words.
+     *
+     * @param words The bitboard
+     * @param start Index of the first bit
+     * @param length Number of bits
+     * @return The bits, shifted down to bit zero; higher bits are unspecified
+     */
+    private static long extract(long[] words, int start, int length) {
+        int word = start >>> 6;
+        int bit = start & 63;
+        long bits = words[word] >>> bit;
+        if (bit + length > Long.SIZE) {
+            bits |= words[word + 1] << (Long.SIZE - bit);
+        }
+        return bits;
+    }
+
+    /**
+     * Sets or clears up to 64 consecutive bits that may straddle two words.
+     *
+     * @param words The bitboard
+     * @param start Index of the first bit
+     * @param length Number of bits
+     * @param value Whether the bits are set or cleared
+     */
+    private static void setRun(long[] words, int start, int length, boolean value) {
+        int word = start >>> 6;
+        int bit = start & 63;
+        long run = mask(length);
+        long low = run << bit;
+        long high = bit + length > Long.SIZE ? run >>> (Long.SIZE - bit) : 0L;
+        if (value) {
+            words[word] |= low;
+            if (high != 0) {
+                words[word + 1] |= high;
+            }
+        }
+        else {
+            words[word] &= ~low;
+            if (high != 0) {
+                words[word + 1] &= ~high;
+            }
+        }
+    }
+}
@@ -0,0 +1,610 @@
+package puzzles.jam.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Immutable description of a Jam puzzle shared by every packed state of that puzzle. The board holds everything
+ * that never changes during a search (dimensions, car names, orientations, lengths and the fixed lane of each car),
+ * so a state only needs to remember how far each car has slid along its lane. Walls and the exit edge are fixed as
+ * well, and the packed offsets take as many words as the number of cars needs, so the size of a state grows with
+ * the cars rather than the board. It also holds a table of every legal placement of every car, which regular
+ * configurations of the same puzzle share instead of allocating cars.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public final class JamBoard {
+    /** Seed of the Zobrist keys, fixed so that equal configurations hash alike whichever board built them. */
+    private static final long ZOBRIST_SEED = 0x6A09E667F3BCC909L;
+
+    private final int rows;
+    private final int cols;
+    private final int numCars;
+    private final char[] names;
+    private final boolean[] horizontal;
+    private final int[] lengths;
+    private final int[] lanes;
+    private final List<Coordinates> walls;
+    private final Exit exit;
+    private final int target;
+    private final MoveMetric metric;
+    private final int bitsPerCar;
+    private final int carsPerWord;
+    private final int words;
+    private final JamBitboard wallOccupancy;
+    private final long carMask;
+    private final long[] rowMasks;
+    private final long[] columnMasks;
+    private final Car[][] placements;
+    private final long[][] zobrist;
+    private final int[][] interchangeable;
+
+    /**
+     * Constructor for JamBoard objects. Use {@link #of(JamConfig)} to build a board from a loaded configuration.
+     *
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @param names Character representation of each car
+     * @param horizontal Orientation of each car
+     * @param lengths Length of each car
+     * @param lanes Fixed row of each horizontal car, fixed column of each vertical car
+     * @param walls Cells no car can ever cover
+     * @param exit Edge the car 'X' has to reach
+     * @param metric How moves are counted
+     */
+    private JamBoard(int rows, int cols, char[] names, boolean[] horizontal, int[] lengths, int[] lanes,
+                     List<Coordinates> walls, Exit exit, MoveMetric metric) {
+        this.rows = rows;
+        this.cols = cols;
+        this.numCars = names.length;
+        this.names = names;
+        this.horizontal = horizontal;
+        this.lengths = lengths;
+        this.lanes = lanes;
+        this.walls = List.copyOf(walls);
+        this.exit = exit;
+        this.metric = metric;
+        int target = -1;
+        int maxOffset = 1;
+        for (int i = 0; i < numCars; i++) {
+            if (names[i] == 'X') {
+                target = i;
+            }
+            maxOffset = Math.max(maxOffset, laneLength(i) - lengths[i]);
+        }
+        this.target = target;
+        this.bitsPerCar = 32 - Integer.numberOfLeadingZeros(maxOffset);
+        this.carsPerWord = 64 / bitsPerCar;
+        this.carMask = (1L << bitsPerCar) - 1;
+        this.words = Math.max(1, (numCars + carsPerWord - 1) / carsPerWord);
+        this.wallOccupancy = new JamBitboard(rows, cols);
+        for (Coordinates wall : this.walls) {
+            wallOccupancy.fill(true, wall.row(), wall.col(), 1, true);
+        }
+        this.rowMasks = new long[numCars];
+        this.columnMasks = new long[numCars];
+        if (fitsWord()) {
+            for (int i = 0; i < numCars; i++) {
+                for (int j = 0; j < lengths[i]; j++) {
+                    int row = horizontal[i] ? lanes[i] : j;
+                    int col = horizontal[i] ? j : lanes[i];
+                    rowMasks[i] |= 1L << (row * cols + col);
+                    columnMasks[i] |= 1L << (col * rows + row);
+                }
+            }
+        }
+        Coordinates[][] coordinates = new Coordinates[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                coordinates[row][col] = new Coordinates(row, col);
+            }
+        }
+        this.placements = new Car[numCars][];
+        for (int i = 0; i < numCars; i++) {
+            placements[i] = new Car[laneLength(i) - lengths[i] + 1];
+            for (int offset = 0; offset < placements[i].length; offset++) {
+                int last = offset + lengths[i] - 1;
+                Coordinates start = horizontal[i] ? coordinates[lanes[i]][offset] : coordinates[offset][lanes[i]];
+                Coordinates end = horizontal[i] ? coordinates[lanes[i]][last] : coordinates[last][lanes[i]];
+                placements[i][offset] = new Car(names[i], start, end, horizontal[i], lengths[i]);
+            }
+        }
+        SplittableRandom random = new SplittableRandom(ZOBRIST_SEED);
+        this.zobrist = new long[numCars][];
+        for (int i = 0; i < numCars; i++) {
+            zobrist[i] = new long[placements[i].length];
+            for (int offset = 0; offset < zobrist[i].length; offset++) {
+                zobrist[i][offset] = random.nextLong();
+            }
+        }
+        List<int[]> groups = new ArrayList<>();
+        boolean[] grouped = new boolean[numCars];
+        for (int i = 0; i < numCars; i++) {
+            if (i == target || grouped[i]) {
+                continue;
+            }
+            List<Integer> group = new ArrayList<>(List.of(i));
+            for (int j = i + 1; j < numCars; j++) {
+                if (j != target && horizontal[j] == horizontal[i] && lanes[j] == lanes[i] &&
+                        lengths[j] == lengths[i]) {
+                    group.add(j);
+                    grouped[j] = true;
+                }
+            }
+            if (group.size() > 1) {
+                groups.add(group.stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+        this.interchangeable = groups.toArray(new int[0][]);
+    }
+
+    /**
+     * Builds the shared board description from a configuration, counting every cell a car slides as one move.
+     *
+     * @param config Configuration whose cars define the board
+     * @return Board description with the cars in the same order as the configuration
+     */
+    public static JamBoard of(JamConfig config) {
+        return of(config, MoveMetric.CELL);
+    }
+
+    /**
+     * Builds the shared board description from a configuration.
+     *
+     * @param config Configuration whose cars define the board
+     * @param metric How moves are counted
+     * @return Board description with the cars in the same order as the configuration
+     */
+    public static JamBoard of(JamConfig config, MoveMetric metric) {
+        List<Car> cars = config.getCars();
+        int numCars = cars.size();
+        char[] names = new char[numCars];
+        boolean[] horizontal = new boolean[numCars];
+        int[] lengths = new int[numCars];
+        int[] lanes = new int[numCars];
+        for (int i = 0; i < numCars; i++) {
+            Car car = cars.get(i);
+            names[i] = car.name;
+            horizontal[i] = car.horizontal;
+            lengths[i] = car.length;
+            lanes[i] = car.horizontal ? car.start.row() : car.start.col();
+        }
+        return new JamBoard(config.getRows(), config.getCols(), names, horizontal, lengths, lanes,
+                config.getWalls(), config.getExit(), metric);
+    }
+
+    /**
+     * Packs a configuration of this board into its compact form.
+     *
+     * @param config Configuration with the same cars, in the same order, as this board
+     * @return The packed state
+     */
+    public PackedJamConfig pack(JamConfig config) {
+        List<Car> cars = config.getCars();
+        long[] words = new long[Math.max(2, this.words)];
+        for (int i = 0; i < numCars; i++) {
+            Car car = cars.get(i);
+            int offset = horizontal[i] ? car.start.col() : car.start.row();
+            words[i / carsPerWord] |= (long) offset << shift(i);
+        }
+        return state(words);
+    }
+
+    /**
+     * Builds a packed state from its words.
+     *
+     * @param words The packed offsets, at least two words long
+     * @return The packed state
+     */
+    private PackedJamConfig state(long[] words) {
+        long[] rest = this.words > 2 ? Arrays.copyOfRange(words, 2, this.words) : null;
+        return new PackedJamConfig(this, words[0], words[1], rest);
+    }
+
+    /**
+     * Returns the representative of a packed state up to interchangeable cars. Cars other than 'X' that share a lane
+     * and a length are interchangeable: swapping their names maps moves to moves and solutions to solutions. They can
+     * never pass each other, so every state reachable from a given one keeps them in the same order, and the
+     * representative puts them in index order along the lane.
+     *
+     * @param config Packed state of this board
+     * @return The state with each group of interchangeable cars in index order, the state itself if it already is
+     */
+    public PackedJamConfig canonical(PackedJamConfig config) {
+        long[] words = null;
+        for (int[] group : interchangeable) {
+            int[] offsets = new int[group.length];
+            boolean ordered = true;
+            for (int j = 0; j < group.length; j++) {
+                offsets[j] = config.offset(group[j]);
+                ordered &= j == 0 || offsets[j - 1] < offsets[j];
+            }
+            if (!ordered) {
+                if (words == null) {
+                    words = new long[Math.max(2, this.words)];
+                    words[0] = config.low();
+                    words[1] = config.high();
+                    if (this.words > 2) {
+                        System.arraycopy(config.rest(), 0, words, 2, this.words - 2);
+                    }
+                }
+                Arrays.sort(offsets);
+                for (int j = 0; j < group.length; j++) {
+                    int car = group[j];
+                    words[word(car)] = (words[word(car)] & ~(carMask << shift(car))) |
+                            (long) offsets[j] << shift(car);
+                }
+            }
+        }
+        return words == null ? config : state(words);
+    }
+
+    /**
+     * Returns whether the board has cars that {@link #canonical(PackedJamConfig)} can exchange.
+     *
+     * @return Whether any two cars other than 'X' share a lane and a length
+     */
+    public boolean hasInterchangeableCars() {
+        return this.interchangeable.length > 0;
+    }
+
+    /**
+     * Materializes the cars of a packed state, for display only.
+     *
+     * @param config Packed state of this board
+     * @return A regular configuration equal to the packed one
+     */
+    public JamConfig unpack(PackedJamConfig config) {
+        ArrayList<Car> cars = new ArrayList<>(numCars);
+        for (int i = 0; i < numCars; i++) {
+            cars.add(placements[i][config.offset(i)]);
+        }
+        return new JamConfig(this, cars);
+    }
+
+    /**
+     * Returns the shared car object of a car at a position along its lane. Every placement of every car is built
+     * once per board, with coordinates shared between placements, so moves never create geometry objects.
+     *
+     * @param car Index of the car
+     * @param offset Position of the car along its lane
+     * @return The car at that position
+     */
+    public Car placement(int car, int offset) {
+        return this.placements[car][offset];
+    }
+
+    /**
+     * Returns the random Zobrist key of a car at a position along its lane. The hash of a configuration is the XOR of
+     * the keys of all its cars, so sliding a car updates it with two XORs: one removing the key of the old position
+     * and one adding the key of the new one.
+     *
+     * @param car Index of the car
+     * @param offset Position of the car along its lane
+     * @return The key
+     */
+    long zobrist(int car, int offset) {
+        return this.zobrist[car][offset];
+    }
+
+    /**
+     * Computes the Zobrist hash of a packed state from scratch.
+     *
+     * @param low Offsets of the cars stored in the first word
+     * @param high Offsets of the cars stored in the second word
+     * @param rest Offsets of the cars stored in the remaining words, null if there are none
+     * @return XOR of the keys of every car
+     */
+    long zobrist(long low, long high, long[] rest) {
+        long hash = 0;
+        for (int i = 0; i < numCars; i++) {
+            int index = word(i);
+            long word = index == 0 ? low : index == 1 ? high : rest[index - 2];
+            hash ^= zobrist[i][(int) ((word >>> shift(i)) & carMask)];
+        }
+        return hash;
+    }
+
+    /**
+     * Returns whether the car 'X' touches the exit edge at the given position.
+     *
+     * @param offset Position of the car 'X' along its lane
+     * @return Whether that position solves the puzzle
+     */
+    boolean isAtExit(int offset) {
+        return target >= 0 && exit.isReached(placements[target][offset], rows, cols);
+    }
+
+    /**
+     * Enumerates every arrangement of the cars, without overlaps, in which the car 'X' has reached the exit.
+     *
+     * @return All solved states of this board
+     */
+    public List<PackedJamConfig> solvedStates() {
+        List<PackedJamConfig> solved = new ArrayList<>();
+        if (target >= 0) {
+            boolean[] occupied = new boolean[rows * cols];
+            for (Coordinates wall : walls) {
+                occupied[wall.row() * cols + wall.col()] = true;
+            }
+            placeCars(0, occupied, new long[Math.max(2, this.words)], solved);
+        }
+        return solved;
+    }
+
+    /**
+     * Places the remaining cars in every free position, recording each complete solved arrangement.
+     *
+     * @param car Index of the next car to place
+     * @param occupied Cells covered by the cars placed so far
+     * @param words Packed offsets of the cars placed so far
+     * @param solved List receiving the complete arrangements
+     */
+    private void placeCars(int car, boolean[] occupied, long[] words, List<PackedJamConfig> solved) {
+        if (car == numCars) {
+            solved.add(state(words));
+            return;
+        }
+        for (int offset = 0; offset <= laneLength(car) - lengths[car]; offset++) {
+            boolean free = car != target || isAtExit(offset);
+            for (int j = 0; j < lengths[car] && free; j++) {
+                free = !occupied[cell(car, offset + j)];
+            }
+            if (free) {
+                for (int j = 0; j < lengths[car]; j++) {
+                    occupied[cell(car, offset + j)] = true;
+                }
+                words[word(car)] |= (long) offset << shift(car);
+                placeCars(car + 1, occupied, words, solved);
+                words[word(car)] &= ~(carMask << shift(car));
+                for (int j = 0; j < lengths[car]; j++) {
+                    occupied[cell(car, offset + j)] = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a value identifying the fixed parts of this board, so that data keyed by state codes, such as a saved
+     * distance table, is only reused for the board it was computed for.
+     *
+     * @return Fingerprint of the board
+     */
+    public long fingerprint() {
+        long hash = (rows * 31L + cols) * 31 + metric.ordinal();
+        for (int i = 0; i < numCars; i++) {
+            hash = hash * 31 + names[i];
+            hash = hash * 31 + (horizontal[i] ? 1 : 0);
+            hash = hash * 31 + lengths[i];
+            hash = hash * 31 + lanes[i];
+        }
+        if (exit != Exit.RIGHT || !walls.isEmpty()) {
+            hash = hash * 31 + exit.ordinal();
+            for (Coordinates wall : walls) {
+                hash = hash * 31 + wall.row() * cols + wall.col();
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the row-major index of a cell in a car's lane.
+     *
+     * @param car Index of the car
+     * @param position Column along a horizontal lane, row along a vertical lane
+     * @return Index of the cell
+     */
+    public int cell(int car, int position) {
+        return horizontal[car] ? lanes[car] * cols + position : position * cols + lanes[car];
+    }
+
+    /**
+     * Returns the number of cells in the lane the car slides along.
+     *
+     * @param car Index of the car
+     * @return Number of columns for horizontal cars, number of rows for vertical cars
+     */
+    public int laneLength(int car) {
+        return horizontal[car] ? cols : rows;
+    }
+
+    /**
+     * Returns whether every cell of the board fits in a single 64-bit bitboard word.
+     *
+     * @return Whether the board has at most 64 cells
+     */
+    boolean fitsWord() {
+        return rows * cols <= Long.SIZE;
+    }
+
+    /**
+     * Returns the cells of a car at offset 0 as a row-major bitboard word. Only set when {@link #fitsWord()}.
+     *
+     * @param car Index of the car
+     * @return Row-major mask of the car
+     */
+    long rowMask(int car) {
+        return this.rowMasks[car];
+    }
+
+    /**
+     * Returns the cells of a car at offset 0 as a column-major bitboard word. Only set when {@link #fitsWord()}.
+     *
+     * @param car Index of the car
+     * @return Column-major mask of the car
+     */
+    long columnMask(int car) {
+        return this.columnMasks[car];
+    }
+
+    /**
+     * Returns the bit position of a car's offset inside its word.
+     *
+     * @param car Index of the car
+     * @return Bit shift of the car's offset
+     */
+    int shift(int car) {
+        return (car % carsPerWord) * bitsPerCar;
+    }
+
+    /**
+     * Returns which word of the packed state holds a car's offset.
+     *
+     * @param car Index of the car
+     * @return Index of the word
+     */
+    int word(int car) {
+        return car / carsPerWord;
+    }
+
+    /**
+     * Returns how many words a packed state uses.
+     *
+     * @return Number of packed words
+     */
+    int words() {
+        return this.words;
+    }
+
+    /**
+     * Returns a fresh bitboard with only the walls occupied, onto which the cars of a state are placed.
+     *
+     * @return Occupancy of the empty board
+     */
+    JamBitboard emptyOccupancy() {
+        return new JamBitboard(this.wallOccupancy);
+    }
+
+    /**
+     * Returns how many offsets fit in one word.
+     *
+     * @return Cars per word
+     */
+    int carsPerWord() {
+        return this.carsPerWord;
+    }
+
+    /**
+     * Returns the mask of a single offset once shifted down to bit zero.
+     *
+     * @return Offset mask
+     */
+    long carMask() {
+        return this.carMask;
+    }
+
+    /**
+     * Returns the number of rows on the board.
+     *
+     * @return Number of rows
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Returns the number of columns on the board.
+     *
+     * @return Number of columns
+     */
+    public int getCols() {
+        return this.cols;
+    }
+
+    /**
+     * Returns the number of cars on the board.
+     *
+     * @return Number of cars
+     */
+    public int getNumCars() {
+        return this.numCars;
+    }
+
+    /**
+     * Returns the character representation of a car.
+     *
+     * @param car Index of the car
+     * @return Name of the car
+     */
+    public char getName(int car) {
+        return this.names[car];
+    }
+
+    /**
+     * Returns whether a car is horizontal.
+     *
+     * @param car Index of the car
+     * @return Whether the car is horizontal
+     */
+    public boolean isHorizontal(int car) {
+        return this.horizontal[car];
+    }
+
+    /**
+     * Returns the length of a car.
+     *
+     * @param car Index of the car
+     * @return Length of the car
+     */
+    public int getLength(int car) {
+        return this.lengths[car];
+    }
+
+    /**
+     * Returns the fixed lane of a car.
+     *
+     * @param car Index of the car
+     * @return Row of a horizontal car, column of a vertical car
+     */
+    public int getLane(int car) {
+        return this.lanes[car];
+    }
+
+    /**
+     * Returns the cells no car can ever cover.
+     *
+     * @return Unmodifiable list of wall cells
+     */
+    public List<Coordinates> getWalls() {
+        return this.walls;
+    }
+
+    /**
+     * Returns the edge the car 'X' has to reach.
+     *
+     * @return The exit
+     */
+    public Exit getExit() {
+        return this.exit;
+    }
+
+    /**
+     * Returns how moves are counted on this board.
+     *
+     * @return The move metric
+     */
+    public MoveMetric getMoveMetric() {
+        return this.metric;
+    }
+
+    /**
+     * Returns how far a car may slide in one move, given the free cells next to it.
+     *
+     * @param free Number of free cells on one side of the car
+     * @return Largest distance of a single move in that direction
+     */
+    int maxSlide(int free) {
+        return metric == MoveMetric.CELL ? Math.min(free, 1) : free;
+    }
+
+    /**
+     * Returns the index of the target car 'X'.
+     *
+     * @return Index of the target car, or -1 if the board has none
+     */
+    public int getTarget() {
+        return this.target;
+    }
+}
@@ -10,11 +10,19 @@ import java.util.*;
  * @author John West (jrw2936@rit.edu)
  */
 public class JamConfig implements Configuration {
+    /** Character of an immovable wall cell in the grid. */
+    public static final char WALL = '#';
+
     private final int rows;
     private final int cols;
     private final int numCars;
     private ArrayList<Car> cars;
+    private final List<Coordinates> walls;
+    private final Exit exit;
     private char[][] grid;
+    private JamBitboard occupancy;
+    private JamBoard board;
+    private long hash;
 
     /**
      * Constructor for JamConfig objects
@@ -24,13 +32,58 @@ public class JamConfig implements Configuration {
      * @param cars ArrayList containing all car objects on the board
      */
     public JamConfig(int rows, int cols, int numCars, ArrayList<Car> cars) {
+        this(rows, cols, numCars, cars, List.of(), Exit.RIGHT);
+    }
+
+    /**
+     * Constructor for JamConfig objects with wall cells and an exit on any edge.
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @param numCars Number of cars on the board
+     * @param cars ArrayList containing all car objects on the board
+     * @param walls Cells no car can ever cover
+     * @param exit Edge the car 'X' has to reach
+     */
+    public JamConfig(int rows, int cols, int numCars, ArrayList<Car> cars, List<Coordinates> walls, Exit exit) {
         this.rows = rows;
         this.cols = cols;
         this.numCars = numCars;
         this.cars = cars;
+        this.walls = List.copyOf(walls);
+        this.exit = exit;
         makeGrid();
     }
 
+    /**
+     * Constructor for configurations whose cars come from the placement tables of a board. The grid is only drawn
+     * when it is asked for, since most of these configurations are only hashed and compared during a search.
+     *
+     * @param board Board the cars belong to
+     * @param cars ArrayList containing all car objects on the board, in the board's order
+     */
+    JamConfig(JamBoard board, ArrayList<Car> cars) {
+        this(board, cars, 0);
+    }
+
+    /**
+     * Constructor for configurations whose cars come from the placement tables of a board and whose Zobrist hash is
+     * already known.
+     *
+     * @param board Board the cars belong to
+     * @param cars ArrayList containing all car objects on the board, in the board's order
+     * @param hash Zobrist hash of the cars, 0 to compute it when needed
+     */
+    JamConfig(JamBoard board, ArrayList<Car> cars, long hash) {
+        this.rows = board.getRows();
+        this.cols = board.getCols();
+        this.numCars = board.getNumCars();
+        this.cars = cars;
+        this.walls = board.getWalls();
+        this.exit = board.getExit();
+        this.board = board;
+        this.hash = hash;
+    }
+
     /**
      * Returns the car with the matching character
      *
@@ -53,6 +106,9 @@ public class JamConfig implements Configuration {
      * @return 2-D char array representing the configuration
      */
     public char[][] getGrid(){
+        if (this.grid == null) {
+            makeGrid();
+        }
         return this.grid;
     }
 
@@ -83,16 +139,38 @@ public class JamConfig implements Configuration {
         return this.numCars;
     }
 
+    /**
+     * Returns the cells no car can ever cover.
+     *
+     * @return Unmodifiable list of wall cells
+     */
+    public List<Coordinates> getWalls(){
+        return this.walls;
+    }
+
+    /**
+     * Returns the edge the car 'X' has to reach.
+     *
+     * @return The exit
+     */
+    public Exit getExit(){
+        return this.exit;
+    }
+
     /**
      * Creates the 2-D array used to represent the configurations in text.
      */
     public void makeGrid() {
         this.grid = new char[rows][cols];
+        this.occupancy = null;
         for (int i = 0; i < this.rows; i++) {
             for (int j = 0; j < this.cols; j++) {
                 this.grid[i][j] = '.';
             }
         }
+        for (Coordinates wall : walls) {
+            this.grid[wall.row()][wall.col()] = WALL;
+        }
         for (Car car : cars) {
             if (car.horizontal) {
                 for (int i = car.start.col(); i < car.end.col() + 1; i++) {
@@ -114,9 +192,10 @@ public class JamConfig implements Configuration {
     @Override
     public String toString() {
         StringBuilder configuration = new StringBuilder();
+        char[][] grid = getGrid();
         for (int i = 0; i < this.rows; i++) {
             for (int j = 0; j < this.cols; j++) {
-                configuration.append(this.grid[i][j]).append(" ");
+                configuration.append(grid[i][j]).append(" ");
             }
             configuration.append(System.lineSeparator());
         }
@@ -124,24 +203,44 @@ public class JamConfig implements Configuration {
     }
 
     /**
-     * Returns the string hashcode of the configuration by hashing all car objects.
+     * Returns the hashcode of the configuration by folding its Zobrist hash.
      *
-     * @return The string hashcode of the configuration.
+     * @return The hashcode of the configuration.
      */
     @Override
     public int hashCode() {
-        return this.cars.hashCode();
+        long hash = zobrist();
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Returns the Zobrist hash of the configuration: the XOR of the key of every car at its position, taken from the
+     * board. It is computed on first use and then carried along by {@link #slide(int, int)}.
+     *
+     * @return The Zobrist hash
+     */
+    long zobrist() {
+        if (this.hash == 0) {
+            JamBoard board = getBoard();
+            long hash = 0;
+            for (int i = 0; i < this.cars.size(); i++) {
+                Car car = this.cars.get(i);
+                hash ^= board.zobrist(i, car.horizontal ? car.start.col() : car.start.row());
+            }
+            this.hash = hash;
+        }
+        return this.hash;
     }
 
     /**
      * Returns boolean containing whether the solution is achieved.
      *
-     * @return Whether the start value of the configuration is the ending value.
+     * @return Whether the car 'X' touches the exit edge.
      */
     public boolean isSolution() {
         for (Car car : cars) {
             if (car.name == 'X') {
-                if (car.end.col() == cols - 1) {
+                if (exit.isReached(car, rows, cols)) {
                     return true;
                 }
             }
@@ -175,55 +274,81 @@ public class JamConfig implements Configuration {
     }
 
     /**
-     * Returns a Hashset of valid successors.
+     * Returns the bitboard occupancy of the configuration. It is built on first use, so configurations that are
+     * generated but never expanded do not pay for it.
+     *
+     * @return Occupied cells of the configuration, walls included
+     */
+    public JamBitboard getOccupancy(){
+        if (this.occupancy == null) {
+            JamBitboard occupancy = new JamBitboard(rows, cols);
+            for (Coordinates wall : walls) {
+                occupancy.fill(true, wall.row(), wall.col(), 1, true);
+            }
+            for (Car car : cars) {
+                if (car.horizontal) {
+                    occupancy.fill(true, car.start.row(), car.start.col(), car.length, true);
+                }
+                else {
+                    occupancy.fill(false, car.start.col(), car.start.row(), car.length, true);
+                }
+            }
+            this.occupancy = occupancy;
+        }
+        return this.occupancy;
+    }
+
+    /**
+     * Returns the board description of the configuration, whose placement tables are shared by every configuration
+     * reached from this one.
+     *
+     * @return The shared board description
+     */
+    public JamBoard getBoard(){
+        if (this.board == null) {
+            this.board = JamBoard.of(this);
+        }
+        return this.board;
+    }
+
+    /**
+     * Returns the configuration with one car slid along its lane. The caller is responsible for the move being legal.
+     *
+     * @param car Index of the car
+     * @param distance Number of cells to slide, negative towards the top or left
+     * @return A new configuration sharing every other car with this one, its hash updated with two XORs
+     */
+    public JamConfig slide(int car, int distance){
+        JamBoard board = getBoard();
+        Car current = this.cars.get(car);
+        int offset = current.horizontal ? current.start.col() : current.start.row();
+        long hash = zobrist() ^ board.zobrist(car, offset) ^ board.zobrist(car, offset + distance);
+        ArrayList<Car> cars = new ArrayList<>(this.cars);
+        cars.set(car, board.placement(car, offset + distance));
+        return new JamConfig(board, cars, hash);
+    }
+
+    /**
+     * Returns a Hashset of valid successors. Whether a car can slide is read from the bitboard occupancy, and the
+     * moved cars are taken from the placement tables of the board.
      *
      * @return A HashSet of successor configurations.
      */
     public Collection<Configuration> getNeighbors() {
         HashSet<Configuration> neighbors = new HashSet<>();
-        for (Car car : cars) {
-            if (car.horizontal) {
-                if (car.start.col() - 1 >= 0){
-                    if (this.grid[car.start.row()][car.start.col() - 1] == '.') {
-                        ArrayList<Car> cars = new ArrayList<>(this.cars);
-                        cars.set(cars.indexOf(car), new Car(car.name,
-                                new Coordinates(car.start.row(), car.start.col() - 1),
-                                new Coordinates(car.end.row(), car.end.col() - 1)));
-                        neighbors.add(new JamConfig(this.rows, this.cols, this.numCars, cars));
-                    }
-                }
-                if (car.end.col() + 1 <= this.cols - 1){
-                    if (this.grid[car.end.row()][car.end.col() + 1] == '.') {
-                        ArrayList<Car> cars = new ArrayList<>(this.cars);
-                        cars.set(cars.indexOf(car), new Car(car.name,
-                                new Coordinates(car.start.row(), car.start.col() + 1),
-                                new Coordinates(car.end.row(), car.end.col() + 1)));
-                        neighbors.add(new JamConfig(this.rows, this.cols, this.numCars, cars));
-                        }
-                    }
-                }
-            if (!car.horizontal) {
-                if (car.start.row() - 1 >= 0){
-                    if (this.grid[car.start.row() - 1][car.start.col()] == '.') {
-                        ArrayList<Car> cars = new ArrayList<>(this.cars);
-                        cars.set(cars.indexOf(car), new Car(car.name,
-                                new Coordinates(car.start.row() - 1, car.start.col()),
-                                new Coordinates(car.end.row() - 1, car.end.col())));
-                        neighbors.add(new JamConfig(this.rows, this.cols, this.numCars, cars));
-                    }
-                }
-                if (car.end.row() + 1 <= this.rows - 1){
-                    if (this.grid[car.end.row() + 1][car.end.col()] == '.') {
-                        ArrayList<Car> cars = new ArrayList<>(this.cars);
-                        cars.set(cars.indexOf(car), new Car(car.name,
-                                new Coordinates(car.start.row() + 1, car.start.col()),
-                                new Coordinates(car.end.row() + 1, car.end.col())));
-                        neighbors.add(new JamConfig(this.rows, this.cols, this.numCars, cars));
-
-                    }
-                }
-                }
+        JamBitboard occupancy = getOccupancy();
+        for (int i = 0; i < this.cars.size(); i++) {
+            Car car = this.cars.get(i);
+            int lane = car.horizontal ? car.start.row() : car.start.col();
+            int start = car.horizontal ? car.start.col() : car.start.row();
+            int end = car.horizontal ? car.end.col() : car.end.row();
+            if (occupancy.freeBefore(car.horizontal, lane, start) > 0) {
+                neighbors.add(slide(i, -1));
+            }
+            if (occupancy.freeAfter(car.horizontal, lane, end) > 0) {
+                neighbors.add(slide(i, 1));
             }
-        return neighbors;
         }
+        return neighbors;
     }
+}
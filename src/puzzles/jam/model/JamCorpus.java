@@ -0,0 +1,177 @@
+package puzzles.jam.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compact binary file of many Jam puzzles, read through a memory-mapped buffer so that puzzles are decoded on
+ * demand instead of parsed up front. The file starts with a header and a table of record offsets, so any puzzle can
+ * be found without reading the ones before it:
+ * <pre>
+ *     int magic, int version, int count, count * int offset
+ *     per puzzle: byte rows, byte cols, byte exit, short cars, short walls,
+ *                 per car: char name, byte startRow, byte startCol, byte endRow, byte endCol,
+ *                 per wall: byte row, byte col
+ * </pre>
+ * All numbers are big-endian. The mapped buffer is only read with absolute gets, so one corpus can be shared by
+ * any number of threads.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public final class JamCorpus {
+    /** First four bytes of every corpus file, "JAMC". */
+    private static final int MAGIC = 0x4A414D43;
+
+    /** Version of the record layout. */
+    private static final int VERSION = 1;
+
+    /** Size of the fixed part of the header in bytes. */
+    private static final int HEADER = 12;
+
+    /** Exit edges by ordinal. */
+    private static final Exit[] EXITS = Exit.values();
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+
+    /**
+     * Constructor for a corpus over a mapped buffer.
+     *
+     * @param buffer The mapped file
+     * @param count Number of puzzles
+     */
+    private JamCorpus(MappedByteBuffer buffer, int count) {
+        this.buffer = buffer;
+        this.count = count;
+    }
+
+    /**
+     * Maps a corpus file into memory.
+     *
+     * @param file The corpus file
+     * @return The corpus
+     * @throws IOException If the file cannot be mapped or is not a corpus
+     */
+    public static JamCorpus open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a Jam corpus: " + file);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported Jam corpus version " + buffer.getInt(4) + ": " + file);
+            }
+            int count = buffer.getInt(8);
+            if (count < 0 || HEADER + 4L * count > buffer.limit()) {
+                throw new IOException("Truncated Jam corpus: " + file);
+            }
+            return new JamCorpus(buffer, count);
+        }
+    }
+
+    /**
+     * Writes puzzles to a corpus file.
+     *
+     * @param configs The puzzles, in corpus order
+     * @param file The file to write
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(List<JamConfig> configs, Path file) throws IOException {
+        List<byte[]> records = new ArrayList<>(configs.size());
+        for (JamConfig config : configs) {
+            records.add(encode(config));
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(records.size());
+            long offset = HEADER + 4L * records.size();
+            for (byte[] record : records) {
+                if (offset > Integer.MAX_VALUE) {
+                    throw new IOException("Jam corpus larger than 2 GB: " + file);
+                }
+                out.writeInt((int) offset);
+                offset += record.length;
+            }
+            for (byte[] record : records) {
+                out.write(record);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of puzzles in the corpus.
+     *
+     * @return Number of puzzles
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Decodes one puzzle of the corpus.
+     *
+     * @param index Position of the puzzle in the corpus
+     * @return The starting configuration of the puzzle
+     */
+    public JamConfig get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Puzzle " + index + " of " + count);
+        }
+        int at = buffer.getInt(HEADER + 4 * index);
+        int rows = buffer.get(at);
+        int cols = buffer.get(at + 1);
+        Exit exit = EXITS[buffer.get(at + 2)];
+        int numCars = buffer.getShort(at + 3);
+        int numWalls = buffer.getShort(at + 5);
+        at += 7;
+        ArrayList<Car> cars = new ArrayList<>(numCars);
+        for (int i = 0; i < numCars; i++) {
+            cars.add(new Car(buffer.getChar(at), new Coordinates(buffer.get(at + 2), buffer.get(at + 3)),
+                    new Coordinates(buffer.get(at + 4), buffer.get(at + 5))));
+            at += 6;
+        }
+        List<Coordinates> walls = new ArrayList<>(numWalls);
+        for (int i = 0; i < numWalls; i++) {
+            walls.add(new Coordinates(buffer.get(at), buffer.get(at + 1)));
+            at += 2;
+        }
+        return new JamConfig(rows, cols, numCars, cars, walls, exit);
+    }
+
+    /**
+     * Returns the record of one puzzle.
+     *
+     * @param config The puzzle
+     * @return The encoded record
+     */
+    private static byte[] encode(JamConfig config) {
+        ByteBuffer record = ByteBuffer.allocate(7 + 6 * config.getCars().size() + 2 * config.getWalls().size());
+        record.put((byte) config.getRows());
+        record.put((byte) config.getCols());
+        record.put((byte) config.getExit().ordinal());
+        record.putShort((short) config.getCars().size());
+        record.putShort((short) config.getWalls().size());
+        for (Car car : config.getCars()) {
+            record.putChar(car.getName());
+            record.put((byte) car.getStart().row());
+            record.put((byte) car.getStart().col());
+            record.put((byte) car.getEnd().row());
+            record.put((byte) car.getEnd().col());
+        }
+        for (Coordinates wall : config.getWalls()) {
+            record.put((byte) wall.row());
+            record.put((byte) wall.col());
+        }
+        return record.array();
+    }
+}
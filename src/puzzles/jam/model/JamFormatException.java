@@ -0,0 +1,49 @@
+package puzzles.jam.model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Thrown when a Jam puzzle file is malformed or describes an impossible board. The message names the file, the line
+ * and the column of the offending text, counted from 1.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public class JamFormatException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int line;
+    private final int column;
+
+    /**
+     * Constructor for an error at a position in a puzzle file.
+     *
+     * @param file The puzzle file
+     * @param line Line of the error, counted from 1
+     * @param column Column of the error, counted from 1
+     * @param message What is wrong
+     */
+    public JamFormatException(Path file, int line, int column, String message) {
+        super(file + ":" + line + ":" + column + ": " + message);
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Returns the line of the error.
+     *
+     * @return Line, counted from 1
+     */
+    public int getLine() {
+        return this.line;
+    }
+
+    /**
+     * Returns the column of the error.
+     *
+     * @return Column, counted from 1
+     */
+    public int getColumn() {
+        return this.column;
+    }
+}
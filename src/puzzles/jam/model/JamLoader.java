@@ -0,0 +1,441 @@
+package puzzles.jam.model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes Jam puzzle files. A file starts with the number of rows and columns, then the number of cars,
+ * then one line per car with its name and the coordinates of its first and last cell. Two optional sections may
+ * follow, in any order:
+ * <pre>
+ *     walls n          followed by n lines "row col", one per immovable wall cell
+ *     exit edge        left, right, top or bottom; right when omitted
+ * </pre>
+ * Blank lines are ignored. Files are read and written as UTF-8, so boards with more cars than there are ASCII
+ * letters can name them.
+ * <p>
+ * Every file is validated as it is read: cars must be straight, at least two cells long, inside the board, named
+ * once, and must not overlap each other or a wall, and the car 'X' must be present and able to drive out through the
+ * exit. Any problem is reported as a {@link JamFormatException} pointing at the line and column it was found at.
+ * Parsed puzzles are immutable, so {@link #load(Path)} keeps the last few in a cache that is only bypassed when the
+ * file is modified.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public final class JamLoader {
+    /** Largest number of rows or columns, the length of a bitboard lane. */
+    private static final int MAX_SIDE = Long.SIZE;
+
+    /** Number of parsed puzzles kept by {@link #load(Path)}. */
+    private static final int CACHE_SIZE = 16;
+
+    /**
+     * A parsed puzzle and the version of the file it was parsed from.
+     *
+     * @param modified Modification time of the file
+     * @param size Size of the file in bytes
+     * @param config The parsed puzzle
+     */
+    private record Entry(FileTime modified, long size, JamConfig config) {
+    }
+
+    /** Parsed puzzles by absolute path, least recently used first. */
+    private static final Map<Path, Entry> CACHE = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, Entry> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Constructor hidden, the loader only has static methods.
+     */
+    private JamLoader() {
+    }
+
+    /**
+     * Returns the puzzle in a file, parsing it only if it was not loaded before or has been modified since. Used to
+     * load and reset puzzles in the user interfaces.
+     *
+     * @param file The file to read
+     * @return The starting configuration of the puzzle
+     * @throws IOException If the file cannot be read or is malformed
+     */
+    public static JamConfig load(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        FileTime modified = Files.getLastModifiedTime(key);
+        long size = Files.size(key);
+        synchronized (CACHE) {
+            Entry entry = CACHE.get(key);
+            if (entry != null && entry.modified().equals(modified) && entry.size() == size) {
+                return entry.config();
+            }
+        }
+        JamConfig config = read(key);
+        synchronized (CACHE) {
+            CACHE.put(key, new Entry(modified, size, config));
+        }
+        return config;
+    }
+
+    /**
+     * Reads and validates a puzzle file, bypassing the cache.
+     *
+     * @param file The file to read
+     * @return The starting configuration of the puzzle
+     * @throws IOException If the file cannot be read or is malformed
+     */
+    public static JamConfig read(Path file) throws IOException {
+        return new Parser(file, Files.readString(file)).parse();
+    }
+
+    /**
+     * Writes a configuration in the format read by {@link #read(Path)}. The optional sections are only written when
+     * the board has walls or an exit other than the right edge.
+     *
+     * @param config The configuration to write
+     * @param file The file to write
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(JamConfig config, Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write(config.getRows() + " " + config.getCols());
+            out.newLine();
+            out.write(Integer.toString(config.getCars().size()));
+            out.newLine();
+            for (Car car : config.getCars()) {
+                out.write(car.getName() + " " + car.getStart().row() + " " + car.getStart().col() + " " +
+                        car.getEnd().row() + " " + car.getEnd().col());
+                out.newLine();
+            }
+            if (!config.getWalls().isEmpty()) {
+                out.write("walls " + config.getWalls().size());
+                out.newLine();
+                for (Coordinates wall : config.getWalls()) {
+                    out.write(wall.row() + " " + wall.col());
+                    out.newLine();
+                }
+            }
+            if (config.getExit() != Exit.RIGHT) {
+                out.write("exit " + config.getExit().name().toLowerCase());
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Reads a puzzle file with a cursor over its text, without splitting lines into strings.
+     */
+    private static final class Parser {
+        private final Path file;
+        private final String text;
+        private int position;
+        private int line = 1;
+        private int lineStart;
+        private int tokenLine;
+        private int tokenColumn;
+
+        /**
+         * Constructor for a parser over the text of a file.
+         *
+         * @param file The file, for error messages
+         * @param text Its contents
+         */
+        Parser(Path file, String text) {
+            this.file = file;
+            this.text = text;
+        }
+
+        /**
+         * Parses and validates the whole file.
+         *
+         * @return The starting configuration of the puzzle
+         * @throws JamFormatException If the file is malformed
+         */
+        JamConfig parse() throws JamFormatException {
+            nextLine("the board size");
+            int rows = readInt("the number of rows", 1, MAX_SIDE);
+            int cols = readInt("the number of columns", 1, MAX_SIDE);
+            endLine();
+            nextLine("the number of cars");
+            int numCars = readInt("the number of cars", 1, rows * cols);
+            endLine();
+
+            char[][] grid = new char[rows][cols];
+            ArrayList<Car> cars = new ArrayList<>(numCars);
+            int target = -1;
+            int targetLine = 0;
+            for (int i = 0; i < numCars; i++) {
+                nextLine("car " + (i + 1) + " of " + numCars);
+                int nameLine = line;
+                int nameColumn = column();
+                char name = readName();
+                int startRow = readInt("the start row", 0, rows - 1);
+                int startCol = readInt("the start column", 0, cols - 1);
+                int endRow = readInt("the end row", 0, rows - 1);
+                int endCol = readInt("the end column", 0, cols - 1);
+                endLine();
+                if (startRow != endRow && startCol != endCol) {
+                    throw error(nameLine, nameColumn, "car '" + name + "' is neither horizontal nor vertical");
+                }
+                if (endRow < startRow || endCol < startCol) {
+                    throw error(nameLine, nameColumn, "car '" + name + "' ends before it starts");
+                }
+                if (startRow == endRow && startCol == endCol) {
+                    throw error(nameLine, nameColumn, "car '" + name + "' covers a single cell");
+                }
+                for (Car other : cars) {
+                    if (other.getName() == name) {
+                        throw error(nameLine, nameColumn, "car '" + name + "' is named twice");
+                    }
+                }
+                for (int r = startRow; r <= endRow; r++) {
+                    for (int c = startCol; c <= endCol; c++) {
+                        if (grid[r][c] != 0) {
+                            throw error(nameLine, nameColumn, "car '" + name + "' overlaps car '" + grid[r][c] +
+                                    "' at " + r + " " + c);
+                        }
+                        grid[r][c] = name;
+                    }
+                }
+                if (name == 'X') {
+                    target = i;
+                    targetLine = nameLine;
+                }
+                cars.add(new Car(name, new Coordinates(startRow, startCol), new Coordinates(endRow, endCol)));
+            }
+
+            List<Coordinates> walls = new ArrayList<>();
+            Exit exit = Exit.RIGHT;
+            boolean wallsRead = false;
+            boolean exitRead = false;
+            while (skipBlankLines()) {
+                int sectionColumn = column();
+                String section = readWord();
+                if (section.equals("walls") && !wallsRead) {
+                    wallsRead = true;
+                    int numWalls = readInt("the number of walls", 0, rows * cols);
+                    endLine();
+                    for (int i = 0; i < numWalls; i++) {
+                        nextLine("wall " + (i + 1) + " of " + numWalls);
+                        int wallColumn = column();
+                        int row = readInt("the wall row", 0, rows - 1);
+                        int col = readInt("the wall column", 0, cols - 1);
+                        endLine();
+                        if (grid[row][col] != 0) {
+                            throw error(line, wallColumn, "wall at " + row + " " + col + " overlaps " +
+                                    (grid[row][col] == JamConfig.WALL ? "another wall" :
+                                            "car '" + grid[row][col] + "'"));
+                        }
+                        grid[row][col] = JamConfig.WALL;
+                        walls.add(new Coordinates(row, col));
+                    }
+                }
+                else if (section.equals("exit") && !exitRead) {
+                    exitRead = true;
+                    skipSpaces();
+                    int edgeColumn = column();
+                    String edge = readWord();
+                    exit = switch (edge) {
+                        case "left" -> Exit.LEFT;
+                        case "right" -> Exit.RIGHT;
+                        case "top" -> Exit.TOP;
+                        case "bottom" -> Exit.BOTTOM;
+                        default -> throw error(line, edgeColumn, "expected left, right, top or bottom but found " +
+                                (edge.isEmpty() ? "the end of the line" : "'" + edge + "'"));
+                    };
+                    endLine();
+                }
+                else {
+                    throw error(line, sectionColumn, (wallsRead && section.equals("walls")) ||
+                            (exitRead && section.equals("exit")) ? "section '" + section + "' appears twice" :
+                            "expected 'walls' or 'exit' but found '" + section + "'");
+                }
+            }
+
+            if (target < 0) {
+                throw error(line, column(), "no car is named 'X'");
+            }
+            if (cars.get(target).isHorizontal() != exit.isHorizontal()) {
+                throw error(targetLine, 1, "car 'X' is " + (cars.get(target).isHorizontal() ? "horizontal" :
+                        "vertical") + " and cannot reach the " + exit.name().toLowerCase() + " exit");
+            }
+            return new JamConfig(rows, cols, numCars, cars, walls, exit);
+        }
+
+        /**
+         * Moves to the start of the next line with text on it.
+         *
+         * @param what What the line should hold, for the error if the file ends first
+         * @throws JamFormatException If the file ends first
+         */
+        private void nextLine(String what) throws JamFormatException {
+            if (!skipBlankLines()) {
+                throw error(line, column(), "expected " + what + " but the file ended");
+            }
+        }
+
+        /**
+         * Skips whitespace, including line breaks, up to the next text.
+         *
+         * @return Whether there is more text in the file
+         */
+        private boolean skipBlankLines() {
+            while (position < text.length()) {
+                char c = text.charAt(position);
+                if (c == '\n') {
+                    position++;
+                    line++;
+                    lineStart = position;
+                }
+                else if (Character.isWhitespace(c)) {
+                    position++;
+                }
+                else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Skips spaces and tabs within the current line.
+         */
+        private void skipSpaces() {
+            while (position < text.length() && text.charAt(position) != '\n' &&
+                    Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        /**
+         * Checks that nothing but whitespace is left on the current line.
+         *
+         * @throws JamFormatException If there is more text
+         */
+        private void endLine() throws JamFormatException {
+            skipSpaces();
+            if (position < text.length() && text.charAt(position) != '\n') {
+                throw error(line, column(), "unexpected '" + token() + "' at the end of the line");
+            }
+        }
+
+        /**
+         * Reads a whole number within bounds from the current line.
+         *
+         * @param what What the number is, for errors
+         * @param min Smallest allowed value
+         * @param max Largest allowed value
+         * @return The number
+         * @throws JamFormatException If there is no number or it is out of bounds
+         */
+        private int readInt(String what, int min, int max) throws JamFormatException {
+            skipSpaces();
+            startToken();
+            int start = position;
+            boolean negative = position < text.length() && text.charAt(position) == '-';
+            if (negative) {
+                position++;
+            }
+            long value = 0;
+            int digits = 0;
+            while (position < text.length() && text.charAt(position) >= '0' && text.charAt(position) <= '9') {
+                value = Math.min(value * 10 + text.charAt(position) - '0', Integer.MAX_VALUE + 1L);
+                position++;
+                digits++;
+            }
+            if (digits == 0 || (position < text.length() && !Character.isWhitespace(text.charAt(position)))) {
+                position = start;
+                throw error(tokenLine, tokenColumn, "expected " + what + " but found " +
+                        (position < text.length() && text.charAt(position) != '\n' ? "'" + token() + "'" :
+                                "the end of the line"));
+            }
+            value = negative ? -value : value;
+            if (value < min || value > max) {
+                throw error(tokenLine, tokenColumn, what + " must be between " + min + " and " + max + " but is " +
+                        text.substring(start, position));
+            }
+            return (int) value;
+        }
+
+        /**
+         * Reads a car name, a single character, from the current line.
+         *
+         * @return The name
+         * @throws JamFormatException If the name is longer than one character or a reserved cell character
+         */
+        private char readName() throws JamFormatException {
+            startToken();
+            char name = text.charAt(position);
+            if (position + 1 < text.length() && !Character.isWhitespace(text.charAt(position + 1))) {
+                throw error(tokenLine, tokenColumn, "car name '" + token() + "' is not a single character");
+            }
+            if (name == '.' || name == JamConfig.WALL) {
+                throw error(tokenLine, tokenColumn, "'" + name + "' cannot name a car");
+            }
+            position++;
+            return name;
+        }
+
+        /**
+         * Reads a word from the current line.
+         *
+         * @return The word, empty at the end of the line
+         */
+        private String readWord() {
+            startToken();
+            String word = token();
+            position += word.length();
+            return word;
+        }
+
+        /**
+         * Returns the text from the current position up to the next whitespace, without consuming it.
+         *
+         * @return The token
+         */
+        private String token() {
+            int end = position;
+            while (end < text.length() && !Character.isWhitespace(text.charAt(end))) {
+                end++;
+            }
+            return text.substring(position, end);
+        }
+
+        /**
+         * Records where the token about to be read starts.
+         */
+        private void startToken() {
+            tokenLine = line;
+            tokenColumn = column();
+        }
+
+        /**
+         * Returns the column of the current position.
+         *
+         * @return Column, counted from 1
+         */
+        private int column() {
+            return position - lineStart + 1;
+        }
+
+        /**
+         * Returns an error at a position of the file.
+         *
+         * @param line Line of the error
+         * @param column Column of the error
+         * @param message What is wrong
+         * @return The exception to throw
+         */
+        private JamFormatException error(int line, int column, String message) {
+            return new JamFormatException(file, line, column, message);
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package puzzles.jam.model;
 
 import puzzles.common.Observer;
+import puzzles.common.solver.CancellationToken;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.DistanceTable;
+import puzzles.common.solver.SolveLimits;
+import puzzles.common.solver.SolveOutcome;
+import puzzles.common.solver.SolveResult;
 import puzzles.common.solver.Solver;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Model class used for GUI and PTUI of Jam.
@@ -24,6 +32,40 @@ public class JamModel {
 
     private GameState gameState;
 
+    /** milliseconds a hint search may run, 0 for no limit */
+    private long hintTimeout;
+
+    /** token of the hint search currently running, if any */
+    private volatile CancellationToken hintToken;
+
+    /** how the last hint search ended */
+    private SolveOutcome lastHintOutcome;
+
+    /** shared description of the loaded board */
+    private JamBoard board;
+
+    /** how hints and moves remaining count moves; a player's slide is one move by default */
+    private MoveMetric metric = MoveMetric.SLIDE;
+
+    /** file the hints were prepared for */
+    private String hintFile;
+
+    /** distance to the goal of every reachable configuration, null if the puzzle was not analysed */
+    private DistanceTable distances;
+
+    /** whether the last move kept to a shortest solution */
+    private boolean lastMoveOptimal;
+
+    /** the last solution path computed for a hint */
+    private final List<PackedJamConfig> hintPath = new ArrayList<>();
+
+    /** position of each configuration on the last solution path */
+    private final Map<PackedJamConfig, Integer> hintIndex = new HashMap<>();
+
+    /** hints served from the last solution path, and hints that had to compute a new one */
+    private int hintHits;
+    private int hintMisses;
+
     /**
      * Changes the current gamestate
      *
@@ -62,119 +104,266 @@ public class JamModel {
     }
 
     /**
-     * Sets the current configuration
+     * Sets the current configuration. The analysis of the puzzle is kept when the configuration is of the same
+     * puzzle, as after a reset, and dropped otherwise.
      *
      * @param config New configuration
      */
     public void setCurrentConfig(JamConfig config){
         this.currentConfig = config;
+        JamBoard next = JamBoard.of(config, this.metric);
+        if (this.board == null || this.board.fingerprint() != next.fingerprint()) {
+            this.board = next;
+            this.distances = null;
+        }
+        this.hintPath.clear();
+        this.hintIndex.clear();
+        this.hintHits = 0;
+        this.hintMisses = 0;
     }
 
     /**
-     * Advances to the next step. Useful for hint() functionality.
+     * Analyses the whole puzzle once, so that hints and move feedback become lookups. The analysis is saved next to
+     * the puzzle file and reused when the same puzzle is loaded again; resetting a puzzle keeps the analysis already in
+     * memory. Boards too large for a single-long state code are not analysed, and hints fall back to searching.
      *
-     * @return JamConfig of next step in BFS search.
+     * @param filename Name of the file the current configuration was loaded from
      */
-    public JamConfig nextStep(){
-        Collection<Configuration> path = Solver.solve(this.currentConfig);
-        ArrayList<Configuration> finalPath = null;
-        if (path != null) {
-            finalPath = new ArrayList<>(path);
+    public void prepareHints(String filename){
+        if (this.board == null) {
+            this.board = JamBoard.of(this.currentConfig, this.metric);
+        }
+        PackedJamConfig start = board.pack(this.currentConfig);
+        this.hintFile = filename;
+        if (!start.hasCode() || (this.distances != null && this.distances.contains(start))) {
+            return;
         }
-        if (finalPath != null) {
-            this.currentConfig = (JamConfig) finalPath.get(1);
-            return (JamConfig) finalPath.get(1);
+        Path file = Path.of(filename + "." + metric.name().toLowerCase() + ".dist");
+        try {
+            this.distances = DistanceTable.load(file, board.fingerprint());
+        }
+        catch (IOException e) {
+            this.distances = null;
+        }
+        if (this.distances == null || !this.distances.contains(start)) {
+            this.distances = DistanceTable.build(start, board.fingerprint());
+            try {
+                this.distances.save(file);
+            }
+            catch (IOException e) {
+                // Hints still work from memory; only the next load has to analyse the puzzle again.
+            }
         }
-        return null;
     }
 
     /**
-     * Utility method that functions as an isValid for moves. Useful for moves greater than one unit.
+     * Changes how moves are counted, and prepares the hints of the current puzzle again.
      *
-     * @param car Current car object
-     * @param cell Target coordinates
-     * @return
+     * @param metric The move metric
      */
-    public boolean checkSide(Car car, Coordinates cell){
-        if (currentConfig.getGrid()[cell.row()][cell.col()] != '.' &&
-                currentConfig.getGrid()[cell.row()][cell.col()] != car.name){
-            return false;
+    public void setMoveMetric(MoveMetric metric){
+        this.metric = metric;
+        this.board = null;
+        this.distances = null;
+        this.hintPath.clear();
+        this.hintIndex.clear();
+        if (this.hintFile != null && this.currentConfig != null) {
+            prepareHints(this.hintFile);
         }
+    }
 
-        if (car.isHorizontal()){
-            if (cell.col() > car.getEnd().col()){
-                for (int i = car.getEnd().col() + 1; i < cell.col(); i++){
-                    if (!(currentConfig.getGrid()[car.getEnd().row()][i] == '.')){
-                        return false;
-                    }
-                }
-            }
-            else if (cell.col() < car.getEnd().col()){
-                for (int i = cell.col(); i < car.getStart().col(); i++){
-                    if (!(currentConfig.getGrid()[car.getStart().row()][i] == '.')) {
-                        return false;
-                    }
-                }
-            }
-            else {
-                return false;
-            }
+    /**
+     * Returns how moves are counted.
+     *
+     * @return The move metric
+     */
+    public MoveMetric getMoveMetric(){
+        return this.metric;
+    }
+
+    /**
+     * Returns the number of moves left with perfect play, counted with the current move metric.
+     *
+     * @return Moves remaining, or -1 if the puzzle was not analysed or cannot be solved
+     */
+    public int getMovesRemaining(){
+        if (this.distances == null) {
+            return DistanceTable.UNSOLVABLE;
+        }
+        return this.distances.distance(board.pack(this.currentConfig));
+    }
+
+    /**
+     * Returns whether the last move kept to a shortest solution.
+     *
+     * @return Whether the last move was optimal, false if the puzzle was not analysed
+     */
+    public boolean isLastMoveOptimal(){
+        return this.lastMoveOptimal;
+    }
+
+    /**
+     * Returns whether the puzzle was analysed, so that move feedback is available.
+     *
+     * @return Whether a distance table is loaded
+     */
+    public boolean hasDistances(){
+        return this.distances != null;
+    }
+
+    /**
+     * Sets how long a hint search may run before giving up.
+     *
+     * @param millis Milliseconds, or 0 for no limit
+     */
+    public void setHintTimeout(long millis){
+        this.hintTimeout = millis;
+    }
+
+    /**
+     * Stops the hint search currently running on another thread, if any.
+     */
+    public void cancelHint(){
+        CancellationToken token = this.hintToken;
+        if (token != null) {
+            token.cancel();
+        }
+    }
+
+    /**
+     * Returns how the last hint search ended.
+     *
+     * @return Outcome of the last search, or null if no hint was requested yet
+     */
+    public SolveOutcome getLastHintOutcome(){
+        return this.lastHintOutcome;
+    }
+
+    /**
+     * Advances to the next step. Useful for hint() functionality. The last solution path is kept, so while the
+     * current configuration is still on it the next step is served without searching; after the player leaves it,
+     * a new path is computed from the current configuration only.
+     *
+     * @return JamConfig of next step in BFS search, or null if the search found none or was stopped.
+     */
+    public JamConfig nextStep(){
+        if (this.board == null) {
+            this.board = JamBoard.of(this.currentConfig, this.metric);
+        }
+        PackedJamConfig current = board.pack(this.currentConfig);
+        Integer index = this.hintIndex.get(current);
+        if (index != null) {
+            this.hintHits++;
+            this.lastHintOutcome = SolveOutcome.SOLVED;
         }
         else {
-            if (cell.row() > car.getEnd().row()){
-                for (int i = car.getEnd().row() + 1; i < cell.row(); i++){
-                    if (!(currentConfig.getGrid()[i][car.getEnd().col()] == '.')){
-                        return false;
-                    }
-                }
+            this.hintMisses++;
+            if (!solvePath(current)) {
+                return null;
             }
-            else if (cell.row() < car.getEnd().row()){
-                for (int i = cell.row(); i < car.getStart().row(); i++){
-                    if (!(currentConfig.getGrid()[i][car.getStart().col()] == '.')){
-                        return false;
-                    }
-                }
-            }
-            else {
+            index = 0;
+        }
+        if (index + 1 >= this.hintPath.size()) {
+            return null;
+        }
+        this.currentConfig = this.hintPath.get(index + 1).toJamConfig();
+        return this.currentConfig;
+    }
+
+    /**
+     * Replaces the cached solution path with a shortest path from the given configuration, read from the distance
+     * table if the puzzle was analysed and searched for otherwise.
+     *
+     * @param start Configuration the path starts from
+     * @return Whether a path was found
+     */
+    private boolean solvePath(PackedJamConfig start){
+        this.hintPath.clear();
+        this.hintIndex.clear();
+        if (this.distances != null) {
+            if (this.distances.distance(start) == DistanceTable.UNSOLVABLE) {
+                this.lastHintOutcome = SolveOutcome.UNSOLVABLE;
                 return false;
             }
+            for (PackedJamConfig step = start; step != null; step = (PackedJamConfig) this.distances.nextStep(step)) {
+                this.hintIndex.put(step, this.hintPath.size());
+                this.hintPath.add(step);
+            }
+            this.lastHintOutcome = SolveOutcome.SOLVED;
+            return true;
+        }
+        SolveLimits limits = hintTimeout > 0 ? SolveLimits.NONE.withTimeout(hintTimeout) : SolveLimits.NONE;
+        CancellationToken token = new CancellationToken();
+        this.hintToken = token;
+        SolveResult result = Solver.solve(start, limits, token);
+        this.hintToken = null;
+        this.lastHintOutcome = result.outcome();
+        if (!result.isSolved()) {
+            return false;
+        }
+        for (Configuration step : result.path()) {
+            this.hintIndex.put((PackedJamConfig) step, this.hintPath.size());
+            this.hintPath.add((PackedJamConfig) step);
         }
         return true;
     }
 
-    public void moveCar(Car car, Coordinates cell){
-        ArrayList<Car> cars = new ArrayList<>(this.currentConfig.getCars());
-        if (car.isHorizontal()) {
-            if (cell.col() > car.getEnd().col()) {
-                int difference = cell.col() - car.getEnd().col();
-                cars.set(cars.indexOf(car), new Car(car.name,
-                        new Coordinates(car.start.row(), car.start.col() + difference),
-                        new Coordinates(car.end.row(), car.end.col() + difference)));
-            } else if (cell.col() < car.getEnd().col()) {
-                int difference = car.getStart().col() - cell.col();
-                cars.set(cars.indexOf(car), new Car(car.name,
-                        new Coordinates(car.start.row(), car.start.col() - difference),
-                        new Coordinates(car.end.row(), car.end.col() - difference)));
-            }
-        }
+    /**
+     * Returns how many hints were served from the cached solution path.
+     *
+     * @return Number of hints that needed no search
+     */
+    public int getHintHits(){
+        return this.hintHits;
+    }
 
-        else {
-            if (cell.row() > car.getEnd().row()){
-                int difference = cell.row() - car.getEnd().row();
-                cars.set(cars.indexOf(car), new Car(car.name,
-                        new Coordinates(car.start.row() + difference, car.start.col()),
-                        new Coordinates(car.end.row() + difference, car.end.col())));
-            }
+    /**
+     * Returns how many hints had to compute a new solution path.
+     *
+     * @return Number of hints that searched
+     */
+    public int getHintMisses(){
+        return this.hintMisses;
+    }
 
-            else if (cell.row() < car.getEnd().row()){
-                int difference = car.getStart().row() - cell.row();
-                cars.set(cars.indexOf(car), new Car(car.name,
-                        new Coordinates(car.start.row() - difference, car.start.col()),
-                        new Coordinates(car.end.row() - difference, car.end.col())));
+    /**
+     * Utility method that functions as an isValid for moves. Useful for moves greater than one unit. The free run of
+     * cells on each side of the car is read from the bitboard occupancy of the current configuration.
+     *
+     * @param car Current car object
+     * @param cell Target coordinates
+     * @return Whether the car can slide so that it covers the target cell
+     */
+    public boolean checkSide(Car car, Coordinates cell){
+        boolean horizontal = car.isHorizontal();
+        int lane = horizontal ? car.getStart().row() : car.getStart().col();
+        if ((horizontal ? cell.row() : cell.col()) != lane) {
+            return false;
+        }
+        int position = horizontal ? cell.col() : cell.row();
+        int start = horizontal ? car.getStart().col() : car.getStart().row();
+        int end = horizontal ? car.getEnd().col() : car.getEnd().row();
+        JamBitboard occupancy = currentConfig.getOccupancy();
+        if (position > end) {
+            return position - end <= occupancy.freeAfter(horizontal, lane, end);
+        }
+        else if (position < end) {
+            return start - position <= occupancy.freeBefore(horizontal, lane, start);
+        }
+        return false;
+    }
 
-            }
+    public void moveCar(Car car, Coordinates cell){
+        JamConfig before = this.currentConfig;
+        int position = car.isHorizontal() ? cell.col() : cell.row();
+        int start = car.isHorizontal() ? car.getStart().col() : car.getStart().row();
+        int end = car.isHorizontal() ? car.getEnd().col() : car.getEnd().row();
+        int distance = position > end ? position - end : position < end ? position - start : 0;
+        this.currentConfig = before.slide(before.getCars().indexOf(car), distance);
+        if (this.distances != null) {
+            int moves = metric == MoveMetric.SLIDE ? 1 : Math.abs(distance);
+            this.lastMoveOptimal = this.distances.isOptimal(board.pack(before), board.pack(this.currentConfig), moves);
         }
-        this.currentConfig = new JamConfig(currentConfig.getRows(), currentConfig.getCols(), currentConfig.getNumCars(), cars);
     }
 
     public JamConfig getCurrentConfig(){
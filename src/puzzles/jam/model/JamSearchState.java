@@ -0,0 +1,225 @@
+package puzzles.jam.model;
+
+import puzzles.common.solver.MoveBuffer;
+import puzzles.common.solver.SearchState;
+
+/**
+ * Mutable state of a Jam puzzle for depth-first and heuristic engines. The offsets of the cars, the bitboard
+ * occupancy, the packed words and the Zobrist hash are all updated in place, so generating, applying and undoing
+ * moves allocates nothing. A move is encoded as the index of the car in the upper bits and the signed number of
+ * cells it slides in the lowest byte; see {@link #move(int, int)}.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public final class JamSearchState implements SearchState {
+    private final JamBoard board;
+    private final int[] offsets;
+    private final JamBitboard occupancy;
+    private long low;
+    private long high;
+    private final long[] rest;
+    private long hash;
+
+    /**
+     * Constructor for a search state starting from a packed configuration.
+     *
+     * @param config The initial state
+     */
+    public JamSearchState(PackedJamConfig config) {
+        this.board = config.getBoard();
+        this.offsets = new int[board.getNumCars()];
+        this.occupancy = JamBitboard.of(config);
+        this.low = config.low();
+        this.high = config.high();
+        this.rest = config.rest();
+        this.hash = config.zobrist();
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = config.offset(i);
+        }
+    }
+
+    /**
+     * Constructor for a search state starting from a regular configuration.
+     *
+     * @param config The initial state
+     */
+    public JamSearchState(JamConfig config) {
+        this(JamBoard.of(config).pack(config));
+    }
+
+    /**
+     * Encodes a move.
+     *
+     * @param car Index of the car
+     * @param distance Number of cells to slide, negative towards the top or left
+     * @return The encoded move
+     */
+    public static int move(int car, int distance) {
+        return car << 8 | (distance & 0xFF);
+    }
+
+    /**
+     * Returns the car a move slides.
+     *
+     * @param move The encoded move
+     * @return Index of the car
+     */
+    public static int car(int move) {
+        return move >>> 8;
+    }
+
+    /**
+     * Returns how far a move slides its car.
+     *
+     * @param move The encoded move
+     * @return Number of cells, negative towards the top or left
+     */
+    public static int distance(int move) {
+        return (byte) move;
+    }
+
+    /**
+     * Fills the buffer with every legal move under the board's {@link MoveMetric}, in the same order as
+     * {@link PackedJamConfig#getNeighbors()}.
+     *
+     * @param buffer The buffer to fill
+     */
+    @Override
+    public void generateMoves(MoveBuffer buffer) {
+        buffer.clear();
+        for (int i = 0; i < offsets.length; i++) {
+            long lane = occupancy.lane(board.isHorizontal(i), board.getLane(i));
+            int before = board.maxSlide(JamBitboard.freeBefore(lane, offsets[i]));
+            int after = board.maxSlide(JamBitboard.freeAfter(lane, offsets[i] + board.getLength(i) - 1,
+                    board.laneLength(i)));
+            for (int distance = 1; distance <= before; distance++) {
+                buffer.add(move(i, -distance));
+            }
+            for (int distance = 1; distance <= after; distance++) {
+                buffer.add(move(i, distance));
+            }
+        }
+    }
+
+    /**
+     * Slides a car. The caller is responsible for the move being legal.
+     *
+     * @param move The encoded move
+     */
+    @Override
+    public void apply(int move) {
+        slide(car(move), distance(move));
+    }
+
+    /**
+     * Slides a car back to where it was before the move.
+     *
+     * @param move The encoded move
+     */
+    @Override
+    public void undo(int move) {
+        slide(car(move), -distance(move));
+    }
+
+    /**
+     * Moves a car along its lane, updating the occupied cells, the packed words and the hash.
+     *
+     * @param car Index of the car
+     * @param distance Number of cells to slide
+     */
+    private void slide(int car, int distance) {
+        occupancy.remove(board, car, offsets[car]);
+        hash ^= board.zobrist(car, offsets[car]);
+        offsets[car] += distance;
+        occupancy.place(board, car, offsets[car]);
+        hash ^= board.zobrist(car, offsets[car]);
+        long delta = (long) distance << board.shift(car);
+        int index = board.word(car);
+        if (index == 0) {
+            low += delta;
+        }
+        else if (index == 1) {
+            high += delta;
+        }
+        else {
+            rest[index - 2] += delta;
+        }
+    }
+
+    /**
+     * Returns whether the car 'X' touches the exit edge.
+     *
+     * @return Whether the puzzle is solved
+     */
+    @Override
+    public boolean isSolution() {
+        int target = board.getTarget();
+        return target >= 0 && board.isAtExit(offsets[target]);
+    }
+
+    /**
+     * Returns the packed form of the current state.
+     *
+     * @return A new packed configuration
+     */
+    @Override
+    public PackedJamConfig toConfiguration() {
+        return new PackedJamConfig(board, low, high, rest == null ? null : rest.clone(), hash);
+    }
+
+    /**
+     * Materializes the regular configuration of the current state, for the UIs.
+     *
+     * @return A new JamConfig
+     */
+    public JamConfig toJamConfig() {
+        return board.unpack(toConfiguration());
+    }
+
+    /**
+     * Returns the state code of the current state, valid when the packed form fits in one word.
+     *
+     * @return The state code
+     */
+    public long encode() {
+        return this.low;
+    }
+
+    /**
+     * Returns the state code when the board has one, and the Zobrist hash otherwise.
+     *
+     * @return Key of the current state
+     */
+    @Override
+    public long key() {
+        return board.getNumCars() <= board.carsPerWord() ? this.low : this.hash;
+    }
+
+    /**
+     * Returns the Zobrist hash of the current state, equal to the one of {@link #toConfiguration()}.
+     *
+     * @return XOR of the keys of every car at its position
+     */
+    public long hash() {
+        return this.hash;
+    }
+
+    /**
+     * Returns how far a car has slid along its lane.
+     *
+     * @param car Index of the car
+     * @return Starting column of a horizontal car, starting row of a vertical car
+     */
+    public int offset(int car) {
+        return this.offsets[car];
+    }
+
+    /**
+     * Returns the board this state belongs to.
+     *
+     * @return The shared board description
+     */
+    public JamBoard getBoard() {
+        return this.board;
+    }
+}
@@ -0,0 +1,14 @@
+package puzzles.jam.model;
+
+/**
+ * How moves of the Jam puzzle are counted, which decides the neighbors of a packed state and therefore what a
+ * shortest solution is.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public enum MoveMetric {
+    /** Every cell a car slides is one move. */
+    CELL,
+    /** Sliding one car any distance along its lane is one move, as in the standard Rush Hour count. */
+    SLIDE
+}
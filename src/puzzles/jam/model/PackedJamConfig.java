@@ -0,0 +1,268 @@
+package puzzles.jam.model;
+
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.EncodedConfiguration;
+import puzzles.common.solver.ReversibleConfiguration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Compact configuration of the Jam puzzle. The fixed parts of the puzzle live in a shared {@link JamBoard}; the
+ * state itself is only the offset of each car along its lane, packed into two longs, plus its Zobrist hash, which
+ * is updated incrementally as cars slide. Boards with more cars than two words hold keep the remaining words in an
+ * array, which stays null on the common small boards.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public final class PackedJamConfig implements EncodedConfiguration, ReversibleConfiguration {
+    private final JamBoard board;
+    private final long low;
+    private final long high;
+    private final long[] rest;
+    private final long hash;
+
+    /**
+     * Constructor for PackedJamConfig objects, computing the hash from the offsets.
+     *
+     * @param board Shared board description
+     * @param low Offsets of the cars stored in the first word
+     * @param high Offsets of the cars stored in the second word
+     * @param rest Offsets of the cars stored in the remaining words, null if there are none
+     */
+    PackedJamConfig(JamBoard board, long low, long high, long[] rest) {
+        this(board, low, high, rest, board.zobrist(low, high, rest));
+    }
+
+    /**
+     * Constructor for PackedJamConfig objects whose hash is already known.
+     *
+     * @param board Shared board description
+     * @param low Offsets of the cars stored in the first word
+     * @param high Offsets of the cars stored in the second word
+     * @param rest Offsets of the cars stored in the remaining words, null if there are none; not copied
+     * @param hash Zobrist hash of the offsets
+     */
+    PackedJamConfig(JamBoard board, long low, long high, long[] rest, long hash) {
+        this.board = board;
+        this.low = low;
+        this.high = high;
+        this.rest = rest;
+        this.hash = hash;
+    }
+
+    /**
+     * Returns the board this state belongs to.
+     *
+     * @return The shared board description
+     */
+    public JamBoard getBoard() {
+        return this.board;
+    }
+
+    /**
+     * Returns the first packed word.
+     *
+     * @return Offsets of the cars stored in the first word
+     */
+    long low() {
+        return this.low;
+    }
+
+    /**
+     * Returns the second packed word.
+     *
+     * @return Offsets of the cars stored in the second word
+     */
+    long high() {
+        return this.high;
+    }
+
+    /**
+     * Returns a copy of the words after the first two.
+     *
+     * @return Offsets of the cars stored in the remaining words, null if there are none
+     */
+    long[] rest() {
+        return this.rest == null ? null : this.rest.clone();
+    }
+
+    /**
+     * Returns the Zobrist hash of the state.
+     *
+     * @return XOR of the keys of every car at its position
+     */
+    long zobrist() {
+        return this.hash;
+    }
+
+    /**
+     * Returns how far a car has slid along its lane.
+     *
+     * @param car Index of the car
+     * @return Starting column of a horizontal car, starting row of a vertical car
+     */
+    public int offset(int car) {
+        int index = board.word(car);
+        long word = index == 0 ? low : index == 1 ? high : rest[index - 2];
+        return (int) ((word >>> board.shift(car)) & board.carMask());
+    }
+
+    /**
+     * Returns whether all offsets fit in the first word, in which case that word is the state code.
+     *
+     * @return Whether the state has a single-long code
+     */
+    @Override
+    public boolean hasCode() {
+        return board.getNumCars() <= board.carsPerWord();
+    }
+
+    /**
+     * Returns the first packed word, which holds every offset when {@link #hasCode()} is true.
+     *
+     * @return The state code
+     */
+    @Override
+    public long encode() {
+        return this.low;
+    }
+
+    /**
+     * Rebuilds a state of the same board from its code.
+     *
+     * @param code A code returned by {@link #encode()}
+     * @return The state with that code
+     */
+    @Override
+    public PackedJamConfig decode(long code) {
+        return new PackedJamConfig(board, code, 0L, null);
+    }
+
+    /**
+     * Materializes the regular configuration of this state. Used for display.
+     *
+     * @return The equivalent JamConfig
+     */
+    public JamConfig toJamConfig() {
+        return board.unpack(this);
+    }
+
+    /**
+     * Returns the 2-D array representing the config.
+     *
+     * @return String of the 2-D array
+     */
+    @Override
+    public String toString() {
+        return toJamConfig().toString();
+    }
+
+    /**
+     * Returns the hashcode of the configuration by folding its Zobrist hash.
+     *
+     * @return The hashcode of the configuration.
+     */
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Determines whether two PackedJamConfigs are the same.
+     *
+     * @param other The other PackedJamConfig
+     * @return Whether the configs are the same
+     */
+    @Override
+    public boolean equals(Object other) {
+        boolean result = false;
+        if (other instanceof PackedJamConfig otherConfig) {
+            result = this.low == otherConfig.low && this.high == otherConfig.high && this.board == otherConfig.board
+                    && Arrays.equals(this.rest, otherConfig.rest);
+        }
+        return result;
+    }
+
+    /**
+     * Returns boolean containing whether the solution is achieved.
+     *
+     * @return Whether the car 'X' touches the exit edge.
+     */
+    @Override
+    public boolean isSolution() {
+        int target = board.getTarget();
+        return target >= 0 && board.isAtExit(offset(target));
+    }
+
+    /**
+     * Returns the valid successors: each one car slid a single cell, or any free distance under
+     * {@link MoveMetric#SLIDE}.
+     *
+     * @return A collection of successor configurations.
+     */
+    @Override
+    public Collection<Configuration> getNeighbors() {
+        JamBitboard occupancy = JamBitboard.of(this);
+        ArrayList<Configuration> neighbors = new ArrayList<>();
+        for (int i = 0; i < board.getNumCars(); i++) {
+            long lane = occupancy.lane(board.isHorizontal(i), board.getLane(i));
+            int offset = offset(i);
+            int before = board.maxSlide(JamBitboard.freeBefore(lane, offset));
+            int after = board.maxSlide(JamBitboard.freeAfter(lane, offset + board.getLength(i) - 1,
+                    board.laneLength(i)));
+            for (int distance = 1; distance <= before; distance++) {
+                neighbors.add(slide(i, -distance));
+            }
+            for (int distance = 1; distance <= after; distance++) {
+                neighbors.add(slide(i, distance));
+            }
+        }
+        return neighbors;
+    }
+
+    /**
+     * Returns every solved state of the board.
+     *
+     * @return The goal configurations
+     */
+    @Override
+    public Collection<Configuration> getGoals() {
+        return new ArrayList<>(board.solvedStates());
+    }
+
+    /**
+     * Returns the states one move away. Every slide can be undone by sliding back, so these are the same as the
+     * neighbors.
+     *
+     * @return A collection of predecessor configurations.
+     */
+    @Override
+    public Collection<Configuration> getPredecessors() {
+        return getNeighbors();
+    }
+
+    /**
+     * Returns the state with one car slid along its lane. The caller is responsible for the move being legal.
+     *
+     * @param car Index of the car
+     * @param distance Number of cells to slide, negative towards the top or left
+     * @return The resulting state
+     */
+    PackedJamConfig slide(int car, int distance) {
+        int offset = offset(car);
+        long hash = this.hash ^ board.zobrist(car, offset) ^ board.zobrist(car, offset + distance);
+        long delta = (long) distance << board.shift(car);
+        int index = board.word(car);
+        if (index == 0) {
+            return new PackedJamConfig(board, low + delta, high, rest, hash);
+        }
+        if (index == 1) {
+            return new PackedJamConfig(board, low, high + delta, rest, hash);
+        }
+        long[] rest = this.rest.clone();
+        rest[index - 2] += delta;
+        return new PackedJamConfig(board, low, high, rest, hash);
+    }
+}
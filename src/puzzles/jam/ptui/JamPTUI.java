@@ -4,12 +4,13 @@ import puzzles.common.Observer;
 import puzzles.jam.model.Car;
 import puzzles.jam.model.Coordinates;
 import puzzles.jam.model.JamConfig;
+import puzzles.jam.model.JamFormatException;
+import puzzles.jam.model.JamLoader;
 import puzzles.jam.model.JamModel;
-import java.io.BufferedReader;
-import java.io.FileReader;
+import puzzles.jam.model.MoveMetric;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.ArrayList;
+import java.nio.file.Path;
 
 /**
  * Class that drives the PTUI.
@@ -59,12 +60,68 @@ public class JamPTUI extends ConsoleApplication implements Observer<JamModel, St
         else if (model.getGameState() == JamModel.GameState.WON){
             System.out.println("Game won. Please load a new file.");
         }
+        else if (model.nextStep() == null) {
+            System.out.println("No hint available (" + model.getLastHintOutcome() + ").");
+        }
         else {
-            model.setCurrentConfig(model.nextStep());
             update(this.model, "Advancing to the next step.");
         }
     }
 
+    /**
+     * Prints how many moves are left with perfect play, counted with the current move metric.
+     */
+    public void movesRemaining(){
+        if (model.getGameState() == JamModel.GameState.UNLOADED){
+            System.out.println("Please load a file first.");
+        }
+        else if (model.getMovesRemaining() < 0) {
+            System.out.println(model.hasDistances() ? "The puzzle cannot be solved from here." :
+                    "The puzzle has not been analysed.");
+        }
+        else {
+            System.out.println("Moves remaining: " + model.getMovesRemaining());
+        }
+    }
+
+    /**
+     * Changes how hints and moves remaining count moves.
+     *
+     * @param name Name of the metric, cell or slide
+     */
+    public void metric(String name){
+        try {
+            this.model.setMoveMetric(MoveMetric.valueOf(name.toUpperCase()));
+            System.out.println("Counting moves by " + name.toLowerCase() + ".");
+        }
+        catch (IllegalArgumentException e) {
+            System.out.println("Unknown metric: " + name);
+        }
+    }
+
+    /**
+     * Prints how many hints were served from the last solution path and how many had to search again.
+     */
+    public void hintCache(){
+        int hits = model.getHintHits();
+        int total = hits + model.getHintMisses();
+        System.out.println("Hint path reuse: " + hits + " of " + total + " hints" +
+                (total == 0 ? "." : String.format(" (%.0f%%).", 100.0 * hits / total)));
+    }
+
+    /**
+     * Describes how good the last move was, when the puzzle has been analysed.
+     *
+     * @return Feedback to append to the move message, empty if none is available
+     */
+    private String moveFeedback(){
+        if (!model.hasDistances() || model.getMovesRemaining() < 0) {
+            return "";
+        }
+        return (model.isLastMoveOptimal() ? " (optimal, " : " (not optimal, ") + model.getMovesRemaining() +
+                " moves left)";
+    }
+
     /**
      * Draws the 2-D array with labeled axis.
      */
@@ -99,30 +156,17 @@ public class JamPTUI extends ConsoleApplication implements Observer<JamModel, St
     }
 
     /**
-     * Loads a new file.
+     * Loads a new file. A file that cannot be read or is malformed leaves the current puzzle in place.
      *
      * @param filename Name of file.
+     * @throws IOException If the file cannot be read or is malformed
      */
     public void load(String filename) throws IOException {
+        JamConfig config = JamLoader.load(Path.of(filename));
         JamPTUI.filename = filename;
         this.model.setGameState(JamModel.GameState.ONGOING);
-        BufferedReader br = new BufferedReader(new FileReader(filename));
-        String[] dimensions = br.readLine().split(" ");
-        int numCars = Integer.parseInt(br.readLine());
-        ArrayList<Car> cars = new ArrayList<>();
-        for (int i = 0; i < numCars; i++) {
-            String nextLine = br.readLine();
-            if (nextLine != null) {
-                String[] temp = nextLine.split(" ");
-                cars.add(new Car(temp[0].charAt(0),
-                        new Coordinates(Integer.parseInt(temp[1]), Integer.parseInt(temp[2])),
-                        new Coordinates(Integer.parseInt(temp[3]), Integer.parseInt(temp[4]))));
-            }
-        }
-        this.model.setCurrentConfig(new JamConfig(Integer.parseInt(dimensions[0]),
-                Integer.parseInt(dimensions[1]),
-                numCars,
-                cars));
+        this.model.setCurrentConfig(config);
+        this.model.prepareHints(filename);
 
         update(this.model, "Loaded: " + filename);
     }
@@ -157,7 +201,7 @@ public class JamPTUI extends ConsoleApplication implements Observer<JamModel, St
             }
 
             else if (this.model.getGameState() == JamModel.GameState.ONGOING){
-                if (grid[row][col] == '.'){
+                if (grid[row][col] == '.' || grid[row][col] == JamConfig.WALL){
                     update(this.model, "No car selected at (" + row + ", " + col + ")");
                 }
 
@@ -188,7 +232,7 @@ public class JamPTUI extends ConsoleApplication implements Observer<JamModel, St
                     this.model.moveCar(currentCar, new Coordinates(row, col));
                     this.model.setGameState(JamModel.GameState.ONGOING);
                     update(this.model, "Car moved from " + initialSelection.toString() +
-                            " to " + "(" + row + ", " + col + ")");
+                            " to " + "(" + row + ", " + col + ")" + moveFeedback());
                 }
             }
         }
@@ -224,10 +268,25 @@ public class JamPTUI extends ConsoleApplication implements Observer<JamModel, St
         super.setOnCommand("hint", 0, ": completes next move",
                 commandArgs -> this.hint());
 
+        super.setOnCommand("m", 0, ": shows how many moves are left with perfect play",
+                commandArgs -> this.movesRemaining());
+        super.setOnCommand("moves", 0, ": shows how many moves are left with perfect play",
+                commandArgs -> this.movesRemaining());
+
+        super.setOnCommand("metric", 1, " <cell|slide>: counts each cell or each whole slide as a move",
+                commandArgs -> this.metric(commandArgs[0]));
+
+        super.setOnCommand("c", 0, ": shows how often hints reused the last solution path",
+                commandArgs -> this.hintCache());
+        super.setOnCommand("cache", 0, ": shows how often hints reused the last solution path",
+                commandArgs -> this.hintCache());
+
         super.setOnCommand("l", 1, " <filename>: loads the specified file",
                 commandArgs -> {
                     try {
                         this.load(commandArgs[0]);
+                    } catch (JamFormatException e) {
+                        System.out.println(e.getMessage());
                     } catch (IOException e) {
                         e.printStackTrace();
                     }
@@ -236,6 +295,8 @@ public class JamPTUI extends ConsoleApplication implements Observer<JamModel, St
                 commandArgs -> {
                     try {
                         this.load(commandArgs[0]);
+                    } catch (JamFormatException e) {
+                        System.out.println(e.getMessage());
                     } catch (IOException e) {
                         e.printStackTrace();
                     }
@@ -263,6 +324,11 @@ public class JamPTUI extends ConsoleApplication implements Observer<JamModel, St
                     }
                 });
 
+        super.setOnCommand("t", 1, " <millis>: limits how long a hint may search (0 for no limit)",
+                commandArgs -> this.model.setHintTimeout(Long.parseLong(commandArgs[0])));
+        super.setOnCommand("timeout", 1, " <millis>: limits how long a hint may search (0 for no limit)",
+                commandArgs -> this.model.setHintTimeout(Long.parseLong(commandArgs[0])));
+
         super.setOnCommand("q", 0, ": quits the game",
                 commandArgs -> System.exit(0));
     }
@@ -1,9 +1,17 @@
 package puzzles.jam.solver;
+import puzzles.common.solver.AStarSolver;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.ExternalSolver;
+import puzzles.common.solver.IDAStarSolver;
+import puzzles.common.solver.ParallelSolver;
 import puzzles.common.solver.Solver;
-import puzzles.jam.model.Car;
-import puzzles.jam.model.Coordinates;
+import puzzles.common.solver.SolverStats;
+import puzzles.jam.model.JamBoard;
 import puzzles.jam.model.JamConfig;
+import puzzles.jam.model.JamLoader;
+import puzzles.jam.model.JamSearchState;
+import puzzles.jam.model.MoveMetric;
+import java.nio.file.Path;
 import java.util.*;
 import java.io.*;
 
@@ -15,39 +23,61 @@ import java.io.*;
 public class Jam {
 
     /**
-     * Drives the program to complete the Jam BFS puzzle.
+     * Drives the program to complete the Jam BFS puzzle. An optional argument selects another engine: a thread count
+     * for the parallel solver, "astar" / "idastar" for heuristic search, or "external" for a breadth-first search
+     * kept in files under the temporary directory, optionally followed by its heap cap in megabytes, as in
+     * "external:256". Another optional argument, "cell" or "slide", selects whether every cell or every whole slide
+     * counts as a move.
      *
      * @param args Command line arguments
      */
     public static void main(String[] args) throws IOException {
-        if (args.length != 1) {
-            System.out.println("Usage: java Jam filename");
+        MoveMetric metric = MoveMetric.CELL;
+        String engine = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("cell") || args[i].equals("slide")) {
+                metric = MoveMetric.valueOf(args[i].toUpperCase());
+            }
+            else {
+                engine = args[i];
+            }
+        }
+        if (args.length < 1 || args.length > 3) {
+            System.out.println("Usage: java Jam filename [threads|astar|idastar|external[:MB]] [cell|slide]");
         }
         else {
             String filename = args[0];
-            BufferedReader br = new BufferedReader(new FileReader(filename));
-            String[] dimensions = br.readLine().split(" ");
-            int numCars = Integer.parseInt(br.readLine());
-            ArrayList<Car> cars = new ArrayList<>();
-            for (int i = 0; i < numCars; i++) {
-                String nextLine = br.readLine();
-                if (nextLine != null) {
-                    String[] temp = nextLine.split(" ");
-                    cars.add(new Car(temp[0].charAt(0),
-                            new Coordinates(Integer.parseInt(temp[1]), Integer.parseInt(temp[2])),
-                            new Coordinates(Integer.parseInt(temp[3]), Integer.parseInt(temp[4]))));
+            JamConfig config = JamLoader.read(Path.of(filename));
+
+            JamBoard board = JamBoard.of(config, metric);
+            Collection<Configuration> path;
+            SolverStats stats = new SolverStats();
+            if ("astar".equals(engine)) {
+                path = new AStarSolver<>(new JamHeuristic()).solve(board.pack(config), stats);
+            }
+            else if ("idastar".equals(engine)) {
+                IDAStarSolver<JamSearchState> solver = new IDAStarSolver<>(new JamStateHeuristic());
+                path = solver.solve(new JamSearchState(board.pack(config)), stats);
+                System.out.println("Iterations: " + stats.getIterations());
+            }
+            else if (engine != null && engine.startsWith("external")) {
+                long memory = engine.startsWith("external:") ?
+                        Long.parseLong(engine.substring("external:".length())) << 20 : ExternalSolver.DEFAULT_MEMORY;
+                ExternalSolver solver = new ExternalSolver(Path.of(System.getProperty("java.io.tmpdir")), memory);
+                path = solver.solve(board.pack(config), stats);
+                System.out.println("Buffer: " + solver.getCapacity() + " codes");
+            }
+            else if (engine != null) {
+                try (ParallelSolver solver = new ParallelSolver(Integer.parseInt(engine))) {
+                    path = solver.solve(board.pack(config), stats);
+                    System.out.println("Threads: " + solver.getThreads());
                 }
             }
-
-            JamConfig config = new JamConfig(Integer.parseInt(dimensions[0]),
-                    Integer.parseInt(dimensions[1]),
-                    numCars,
-                    cars);
-
-            Collection<Configuration> path = Solver.solve(config);
-
-            System.out.println("Total Configurations: " + Solver.totalConfigs);
-            System.out.println("Unique Configurations: " + Solver.uniqueConfigs);
+            else {
+                path = Solver.solve(board.pack(config), stats);
+            }
+            System.out.println("Move metric: " + metric.name().toLowerCase());
+            System.out.print(stats);
             System.out.println("File: " + filename);
             System.out.println(config);
             if (path != null){
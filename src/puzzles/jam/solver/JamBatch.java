@@ -0,0 +1,181 @@
+package puzzles.jam.solver;
+
+import puzzles.common.solver.AStarSolver;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.Solver;
+import puzzles.common.solver.SolverStats;
+import puzzles.jam.model.JamBoard;
+import puzzles.jam.model.JamConfig;
+import puzzles.jam.model.JamCorpus;
+import puzzles.jam.model.JamLoader;
+import puzzles.jam.model.MoveMetric;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solves every puzzle of a binary corpus in one JVM, so startup and JIT warmup are paid once for the whole corpus
+ * instead of once per puzzle. The corpus is memory-mapped and each worker decodes the puzzles it solves. Results are
+ * written in corpus order as soon as every earlier puzzle is done, one line per puzzle with the optimal number of
+ * moves (-1 if unsolvable), the number of states expanded and the time taken. Run with
+ * <pre>
+ *     java puzzles.jam.solver.JamBatch corpusFile resultsFile [threads] [bfs|astar] [cell|slide]
+ *     java puzzles.jam.solver.JamBatch -pack corpusFile puzzleFile...
+ * </pre>
+ * where the second form packs text puzzle files into a corpus.
+ *
+ * @author John West (jrw2936)
+ */
+public class JamBatch {
+    /** Puzzles queued per worker beyond those being solved, bounding the results held back for ordering. */
+    private static final int WINDOW = 16;
+
+    /**
+     * Result of one puzzle.
+     *
+     * @param moves Optimal number of moves, or -1 if the puzzle is unsolvable
+     * @param expanded Number of states expanded
+     * @param nanos Time taken to build, pack and solve the puzzle
+     */
+    public record Result(int moves, long expanded, long nanos) {
+    }
+
+    private final JamCorpus corpus;
+    private final MoveMetric metric;
+    private final boolean astar;
+
+    /**
+     * Constructor for a batch over a corpus.
+     *
+     * @param corpus The puzzles
+     * @param metric How moves are counted
+     * @param astar Whether to search with A* instead of breadth-first search
+     */
+    public JamBatch(JamCorpus corpus, MoveMetric metric, boolean astar) {
+        this.corpus = corpus;
+        this.metric = metric;
+        this.astar = astar;
+    }
+
+    /**
+     * Solves a corpus, or packs puzzle files into one, from the command line.
+     *
+     * @param args Command line arguments
+     * @throws Exception If a file cannot be read or written, or a worker fails
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 3 && args[0].equals("-pack")) {
+            List<JamConfig> configs = new ArrayList<>();
+            for (int i = 2; i < args.length; i++) {
+                configs.add(JamLoader.read(Path.of(args[i])));
+            }
+            JamCorpus.write(configs, Path.of(args[1]));
+            System.out.println("Packed " + configs.size() + " puzzles into " + args[1]);
+            return;
+        }
+        if (args.length < 2 || args.length > 5) {
+            System.out.println("Usage: java JamBatch corpusFile resultsFile [threads] [bfs|astar] [cell|slide]");
+            System.out.println("       java JamBatch -pack corpusFile puzzleFile...");
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        MoveMetric metric = MoveMetric.CELL;
+        boolean astar = false;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("cell") || args[i].equals("slide")) {
+                metric = MoveMetric.valueOf(args[i].toUpperCase());
+            }
+            else if (args[i].equals("bfs") || args[i].equals("astar")) {
+                astar = args[i].equals("astar");
+            }
+            else {
+                threads = Integer.parseInt(args[i]);
+            }
+        }
+        JamBatch batch = new JamBatch(JamCorpus.open(Path.of(args[0])), metric, astar);
+        long begin = System.nanoTime();
+        int solved = batch.run(threads, Path.of(args[1]));
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        System.out.printf("Puzzles: %d (%d solved) in %.2f s on %d threads%n", batch.corpus.size(), solved,
+                seconds, threads);
+        System.out.printf("Throughput: %.1f puzzles/s%n", batch.corpus.size() / seconds);
+    }
+
+    /**
+     * Solves every puzzle of the corpus and streams the results to a file in corpus order.
+     *
+     * @param threads Number of worker threads
+     * @param results File the results are written to
+     * @return Number of puzzles solved
+     * @throws IOException If the results cannot be written
+     * @throws InterruptedException If interrupted while waiting for a worker
+     * @throws ExecutionException If a worker fails
+     */
+    public int run(int threads, Path results) throws IOException, InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<Result>> pending = new ArrayDeque<>();
+        int solved = 0;
+        int written = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(results)) {
+            out.write("# puzzle moves expanded ms");
+            out.newLine();
+            for (int i = 0; i < corpus.size(); i++) {
+                int index = i;
+                pending.add(pool.submit(() -> solve(index)));
+                if (pending.size() >= threads * WINDOW) {
+                    solved += write(out, written++, pending.remove().get());
+                }
+            }
+            while (!pending.isEmpty()) {
+                solved += write(out, written++, pending.remove().get());
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+        return solved;
+    }
+
+    /**
+     * Solves one puzzle of the corpus.
+     *
+     * @param index Position of the puzzle in the corpus
+     * @return The result
+     */
+    public Result solve(int index) {
+        long begin = System.nanoTime();
+        JamConfig config = corpus.get(index);
+        JamBoard board = JamBoard.of(config, metric);
+        SolverStats stats = new SolverStats();
+        Collection<Configuration> path = astar ?
+                new AStarSolver<>(new JamHeuristic()).solve(board.pack(config), stats) :
+                Solver.solve(board.pack(config), stats);
+        return new Result(path == null ? -1 : path.size() - 1, stats.getExpanded(), System.nanoTime() - begin);
+    }
+
+    /**
+     * Writes the result line of one puzzle.
+     *
+     * @param out The results file
+     * @param index Position of the puzzle in the corpus
+     * @param result Its result
+     * @return 1 if the puzzle was solved, 0 otherwise
+     * @throws IOException If the line cannot be written
+     */
+    private static int write(BufferedWriter out, int index, Result result) throws IOException {
+        out.write(index + " " + result.moves() + " " + result.expanded() + " " +
+                String.format("%.3f", result.nanos() / 1e6));
+        out.newLine();
+        return result.moves() >= 0 ? 1 : 0;
+    }
+}
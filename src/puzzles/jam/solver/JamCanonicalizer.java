@@ -0,0 +1,24 @@
+package puzzles.jam.solver;
+
+import puzzles.common.solver.Canonicalizer;
+import puzzles.jam.model.PackedJamConfig;
+
+/**
+ * Canonicalization for the Jam puzzle: cars other than 'X' with the same lane and length are interchangeable, and
+ * the representative keeps each group of them in index order along its lane. See
+ * {@link puzzles.jam.model.JamBoard#canonical(PackedJamConfig)}.
+ *
+ * @author John West (jrw2936)
+ */
+public class JamCanonicalizer implements Canonicalizer<PackedJamConfig> {
+    /**
+     * Returns the representative of a packed state up to interchangeable cars.
+     *
+     * @param config The configuration
+     * @return Its representative
+     */
+    @Override
+    public PackedJamConfig canonical(PackedJamConfig config) {
+        return config.getBoard().canonical(config);
+    }
+}
@@ -0,0 +1,350 @@
+package puzzles.jam.solver;
+
+import puzzles.common.solver.LongHashTable;
+import puzzles.common.solver.MoveBuffer;
+import puzzles.jam.model.JamBoard;
+import puzzles.jam.model.JamConfig;
+import puzzles.jam.model.JamLoader;
+import puzzles.jam.model.JamSearchState;
+import puzzles.jam.model.MoveMetric;
+import puzzles.jam.model.PackedJamConfig;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates hard Jam puzzles from a piece set. The pieces, their lanes, the walls and the exit are read from a
+ * puzzle file; every solved placement of those pieces is enumerated, and the solvable part of the state space is
+ * partitioned into its connected clusters. Each cluster is analysed by a breadth-first search backwards from all of
+ * its solved placements at once, which gives the distance of every placement to the nearest solution. The
+ * placements furthest from a solution are the hardest starting states of their cluster.
+ * <p>
+ * Clusters are analysed in parallel. A cluster is reached from each of its solved placements, so a worker only keeps
+ * the cluster whose smallest solved state code it started from and gives up as soon as it meets a smaller one. The
+ * larger solved codes it meets are claimed on the way, so the workers for those seeds skip the cluster without
+ * searching it, and no cluster is reported twice. Clusters that only differ by exchanging interchangeable cars,
+ * cars other than 'X' that share a lane and a length, are the same puzzle; only the one seeded by a canonical
+ * placement is analysed. Every finished seed is appended to a checkpoint file, so an interrupted run resumes where
+ * it stopped. Run with
+ * <pre>
+ *     java puzzles.jam.solver.JamGenerator piecesFile outputDir [threads] [cell|slide] [count]
+ * </pre>
+ * which writes the report to {@code clusters.txt} and the hardest puzzles to {@code hard-N.txt} in the output
+ * directory.
+ *
+ * @author John West (jrw2936)
+ */
+public class JamGenerator {
+    /** Number of hardest puzzles written when no count is given. */
+    private static final int DEFAULT_COUNT = 10;
+
+    /** Name of the checkpoint file in the output directory. */
+    private static final String CHECKPOINT = "checkpoint.txt";
+
+    /**
+     * Summary of one solvable cluster.
+     *
+     * @param seed Smallest state code of a solved placement in the cluster
+     * @param size Number of placements in the cluster
+     * @param distance Largest distance to a solution within the cluster
+     * @param hardest State code of a placement at that distance
+     * @param hardestCount Number of placements at that distance
+     */
+    public record Cluster(long seed, int size, int distance, long hardest, int hardestCount) {
+    }
+
+    private final JamBoard board;
+    private final PackedJamConfig start;
+    private final Path checkpoint;
+    private final Map<Long, Cluster> done = new HashMap<>();
+    private final Set<Long> claimed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor for a generator over the pieces of a puzzle.
+     *
+     * @param pieces Puzzle whose cars, lanes, walls and exit define the piece set
+     * @param metric How moves are counted
+     * @param checkpoint File recording finished seeds, created if it does not exist
+     * @throws IOException If the checkpoint exists but cannot be read or belongs to another piece set
+     */
+    public JamGenerator(JamConfig pieces, MoveMetric metric, Path checkpoint) throws IOException {
+        this.board = JamBoard.of(pieces, metric);
+        this.start = board.pack(pieces);
+        if (!start.hasCode()) {
+            throw new IllegalArgumentException("Too many cars for single-word state codes: " + board.getNumCars());
+        }
+        this.checkpoint = checkpoint;
+        readCheckpoint();
+    }
+
+    /**
+     * Generates hard puzzles from the command line.
+     *
+     * @param args Command line arguments
+     * @throws Exception If a file cannot be read or written, or a worker fails
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || args.length > 5) {
+            System.out.println("Usage: java JamGenerator piecesFile outputDir [threads] [cell|slide] [count]");
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        MoveMetric metric = MoveMetric.CELL;
+        int count = DEFAULT_COUNT;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("cell") || args[i].equals("slide")) {
+                metric = MoveMetric.valueOf(args[i].toUpperCase());
+            }
+            else if (i == 2) {
+                threads = Integer.parseInt(args[i]);
+            }
+            else {
+                count = Integer.parseInt(args[i]);
+            }
+        }
+        Path output = Path.of(args[1]);
+        Files.createDirectories(output);
+        JamGenerator generator = new JamGenerator(JamLoader.read(Path.of(args[0])), metric,
+                output.resolve(CHECKPOINT));
+        long begin = System.nanoTime();
+        List<Cluster> clusters = generator.run(threads);
+        System.out.printf("Clusters: %d solvable, analysed in %.1f s on %d threads%n", clusters.size(),
+                (System.nanoTime() - begin) / 1e9, threads);
+        try (BufferedWriter out = Files.newBufferedWriter(output.resolve("clusters.txt"))) {
+            out.write("# distance size hardest-count seed");
+            out.newLine();
+            for (Cluster cluster : clusters) {
+                out.write(cluster.distance() + " " + cluster.size() + " " + cluster.hardestCount() + " " +
+                        cluster.seed());
+                out.newLine();
+            }
+        }
+        for (int i = 0; i < Math.min(count, clusters.size()); i++) {
+            Cluster cluster = clusters.get(i);
+            Path file = output.resolve("hard-" + (i + 1) + ".txt");
+            JamLoader.write(generator.toPuzzle(cluster), file);
+            System.out.println(file + ": " + cluster.distance() + " moves, cluster of " + cluster.size() +
+                    " placements");
+        }
+    }
+
+    /**
+     * Analyses every solvable cluster not yet recorded in the checkpoint, up to interchangeable cars.
+     *
+     * @param threads Number of worker threads
+     * @return Every solvable cluster with its interchangeable cars in index order, hardest first, then largest first
+     * @throws Exception If a worker fails or the checkpoint cannot be written
+     */
+    public List<Cluster> run(int threads) throws Exception {
+        List<Long> seeds = new ArrayList<>();
+        for (PackedJamConfig solved : board.solvedStates()) {
+            if (!done.containsKey(solved.encode()) && isCanonical(solved.encode())) {
+                seeds.add(solved.encode());
+            }
+        }
+        if (Files.isRegularFile(checkpoint)) {
+            long complete = completeLines(checkpoint).length();
+            if (Files.size(checkpoint) > complete) {
+                // an interrupted run left half a line behind, which was skipped on reading and is cut off here
+                try (FileChannel channel = FileChannel.open(checkpoint, StandardOpenOption.WRITE)) {
+                    channel.truncate(complete);
+                }
+            }
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (BufferedWriter out = Files.newBufferedWriter(checkpoint, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND)) {
+            if (Files.size(checkpoint) == 0) {
+                out.write("# " + Long.toHexString(board.fingerprint()));
+                out.newLine();
+                out.flush();
+            }
+            List<Future<?>> futures = new ArrayList<>();
+            for (long seed : seeds) {
+                futures.add(pool.submit(() -> {
+                    Cluster cluster = claimed.contains(seed) ? null : analyse(seed);
+                    record(out, seed, cluster);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+        List<Cluster> clusters = new ArrayList<>();
+        for (Cluster cluster : done.values()) {
+            if (cluster != null && isCanonical(cluster.seed())) {
+                clusters.add(cluster);
+            }
+        }
+        clusters.sort(Comparator.comparingInt(Cluster::distance).thenComparingInt(Cluster::size).reversed());
+        return clusters;
+    }
+
+    /**
+     * Enumerates the cluster of a solved placement and measures the distance of every placement in it.
+     *
+     * @param seed State code of a solved placement
+     * @return The cluster summary, or null if the cluster holds a solved placement with a smaller code
+     */
+    Cluster analyse(long seed) {
+        LongHashTable distances = new LongHashTable();
+        long[] cluster = new long[1024];
+        int size = 0;
+        long[] queue = new long[1024];
+        int tail = 0;
+        MoveBuffer moves = new MoveBuffer();
+        distances.putIfAbsent(seed, -1);
+        cluster[size++] = seed;
+        for (int head = 0; head < size; head++) {
+            JamSearchState state = new JamSearchState(start.decode(cluster[head]));
+            if (state.isSolution()) {
+                if (cluster[head] < seed) {
+                    return null;
+                }
+                if (cluster[head] != seed) {
+                    claimed.add(cluster[head]);
+                }
+                distances.put(cluster[head], 0);
+                if (tail == queue.length) {
+                    queue = Arrays.copyOf(queue, tail * 2);
+                }
+                queue[tail++] = cluster[head];
+            }
+            state.generateMoves(moves);
+            for (int i = 0; i < moves.size(); i++) {
+                state.apply(moves.get(i));
+                if (distances.putIfAbsent(state.encode(), -1)) {
+                    if (size == cluster.length) {
+                        cluster = Arrays.copyOf(cluster, size * 2);
+                    }
+                    cluster[size++] = state.encode();
+                }
+                state.undo(moves.get(i));
+            }
+        }
+        queue = Arrays.copyOf(queue, size);
+        int maxDistance = 0;
+        long hardest = seed;
+        int hardestCount = 0;
+        for (int head = 0; head < tail; head++) {
+            long code = queue[head];
+            int distance = (int) distances.get(code, -1);
+            if (distance > maxDistance) {
+                maxDistance = distance;
+                hardest = code;
+                hardestCount = 0;
+            }
+            hardestCount++;
+            JamSearchState state = new JamSearchState(start.decode(code));
+            state.generateMoves(moves);
+            for (int i = 0; i < moves.size(); i++) {
+                state.apply(moves.get(i));
+                if (distances.get(state.encode(), 0) == -1) {
+                    distances.put(state.encode(), distance + 1);
+                    queue[tail++] = state.encode();
+                }
+                state.undo(moves.get(i));
+            }
+        }
+        return new Cluster(seed, size, maxDistance, hardest, hardestCount);
+    }
+
+    /**
+     * Returns whether a placement has its interchangeable cars in index order. Checkpoints written before clusters
+     * were canonicalized may also hold the others.
+     *
+     * @param code State code of the placement
+     * @return Whether the placement is its own representative
+     */
+    private boolean isCanonical(long code) {
+        PackedJamConfig config = start.decode(code);
+        return board.canonical(config) == config;
+    }
+
+    /**
+     * Returns the starting configuration of the hardest placement of a cluster.
+     *
+     * @param cluster The cluster
+     * @return The puzzle, with the walls and exit of the piece set
+     */
+    public JamConfig toPuzzle(Cluster cluster) {
+        return start.decode(cluster.hardest()).toJamConfig();
+    }
+
+    /**
+     * Records a finished seed, both in memory and in the checkpoint.
+     *
+     * @param out The checkpoint
+     * @param seed The seed
+     * @param cluster Its cluster, or null if the cluster belongs to a smaller seed
+     * @throws IOException If the checkpoint cannot be written
+     */
+    private synchronized void record(BufferedWriter out, long seed, Cluster cluster) throws IOException {
+        done.put(seed, cluster);
+        if (cluster == null) {
+            out.write(seed + " -");
+        }
+        else {
+            out.write(seed + " " + cluster.size() + " " + cluster.distance() + " " + cluster.hardest() + " " +
+                    cluster.hardestCount());
+        }
+        out.newLine();
+        out.flush();
+    }
+
+    /**
+     * Reads the seeds finished by an earlier run.
+     *
+     * @throws IOException If the checkpoint cannot be read or belongs to another piece set
+     */
+    private void readCheckpoint() throws IOException {
+        if (!Files.isRegularFile(checkpoint)) {
+            return;
+        }
+        List<String> lines = completeLines(checkpoint).lines().toList();
+        if (lines.isEmpty()) {
+            return;
+        }
+        if (!lines.get(0).equals("# " + Long.toHexString(board.fingerprint()))) {
+            throw new IOException("Checkpoint belongs to another piece set: " + checkpoint);
+        }
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.trim().split("\\s+");
+            if (fields.length == 2 && fields[1].equals("-")) {
+                done.put(Long.parseLong(fields[0]), null);
+            }
+            else if (fields.length == 5) {
+                long seed = Long.parseLong(fields[0]);
+                done.put(seed, new Cluster(seed, Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+                        Long.parseLong(fields[3]), Integer.parseInt(fields[4])));
+            }
+        }
+    }
+
+    /**
+     * Returns the text of a checkpoint up to its last line separator, leaving out a line an interrupted run did not
+     * finish writing.
+     *
+     * @param file The checkpoint
+     * @return Every complete line
+     * @throws IOException If the checkpoint cannot be read
+     */
+    private static String completeLines(Path file) throws IOException {
+        String text = Files.readString(file);
+        return text.substring(0, text.lastIndexOf('\n') + 1);
+    }
+
+}
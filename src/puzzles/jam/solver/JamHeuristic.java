@@ -0,0 +1,145 @@
+package puzzles.jam.solver;
+
+import puzzles.common.solver.Heuristic;
+import puzzles.jam.model.Coordinates;
+import puzzles.jam.model.Exit;
+import puzzles.jam.model.JamBoard;
+import puzzles.jam.model.MoveMetric;
+import puzzles.jam.model.PackedJamConfig;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Heuristic for the Jam puzzle. The car 'X' needs one move per cell between it and the exit (a single move when any
+ * slide counts as one), and every car in its way needs at least one move. Blockers are counted recursively: when a
+ * blocking car can only clear the lane of 'X' in one direction, every car in that direction must move as well, and
+ * so on. Each car is counted at most once, so the estimate never exceeds the true number of moves. A wall between
+ * 'X' and the exit makes the puzzle unsolvable; walls elsewhere are ignored, which only lowers the estimate.
+ *
+ * @author John West (jrw2936)
+ */
+public class JamHeuristic implements Heuristic<PackedJamConfig> {
+    /** Owner of a wall cell. */
+    private static final int WALL = -2;
+
+    /** Scratch arrays reused between estimates, grown to the largest board seen. */
+    private int[] owner = new int[0];
+    private boolean[] forced = new boolean[0];
+    private int[] pending = new int[0];
+    private int[] low = new int[0];
+    private int[] high = new int[0];
+
+    /**
+     * Returns the distance of 'X' to the exit plus the number of cars that are forced to move.
+     *
+     * @param config The configuration to estimate
+     * @return The estimated number of moves, or {@link #UNSOLVABLE}
+     */
+    @Override
+    public int estimate(PackedJamConfig config) {
+        return estimate(config.getBoard(), config::offset, config.isSolution());
+    }
+
+    /**
+     * Returns the estimate of a state given by the offsets of its cars, shared with {@link JamStateHeuristic}. The
+     * scratch arrays of this heuristic are reused, so an instance must not be shared between threads.
+     *
+     * @param board The board of the state
+     * @param offsets Offset of each car along its lane
+     * @param solved Whether the state is a solution
+     * @return The estimated number of moves, or {@link #UNSOLVABLE}
+     */
+    int estimate(JamBoard board, IntUnaryOperator offsets, boolean solved) {
+        int target = board.getTarget();
+        Exit exit = board.getExit();
+        if (target < 0 || board.isHorizontal(target) != exit.isHorizontal()) {
+            return solved ? 0 : UNSOLVABLE;
+        }
+        int cols = board.getCols();
+        int numCars = board.getNumCars();
+        int cells = board.getRows() * cols;
+        if (owner.length < cells) {
+            owner = new int[cells];
+        }
+        if (forced.length < numCars) {
+            forced = new boolean[numCars];
+            pending = new int[numCars];
+            low = new int[numCars];
+            high = new int[numCars];
+        }
+        int[] owner = this.owner;
+        boolean[] forced = this.forced;
+        int[] pending = this.pending;
+        int[] low = this.low;
+        int[] high = this.high;
+        Arrays.fill(owner, 0, cells, -1);
+        Arrays.fill(forced, 0, numCars, false);
+        for (Coordinates wall : board.getWalls()) {
+            owner[wall.row() * cols + wall.col()] = WALL;
+        }
+        for (int i = 0; i < numCars; i++) {
+            for (int j = 0; j < board.getLength(i); j++) {
+                owner[board.cell(i, offsets.applyAsInt(i) + j)] = i;
+            }
+        }
+        int lane = board.getLane(target);
+        int start = offsets.applyAsInt(target);
+        int from = exit.isForward() ? start + board.getLength(target) : 0;
+        int to = exit.isForward() ? board.laneLength(target) - 1 : start - 1;
+        int remaining = to - from + 1;
+        int estimate = board.getMoveMetric() == MoveMetric.SLIDE ? Math.min(1, remaining) : remaining;
+        forced[target] = true;
+        int count = 0;
+        for (int position = from; position <= to; position++) {
+            int car = owner[board.cell(target, position)];
+            if (car == WALL) {
+                return UNSOLVABLE;
+            }
+            if (car >= 0 && !forced[car]) {
+                if (board.isHorizontal(car) == board.isHorizontal(target)) {
+                    return UNSOLVABLE;
+                }
+                forced[car] = true;
+                estimate++;
+                pending[count] = car;
+                low[car] = lane;
+                high[car] = lane;
+                count++;
+            }
+        }
+        while (count > 0) {
+            int car = pending[--count];
+            int length = board.getLength(car);
+            int offset = offsets.applyAsInt(car);
+            boolean lower = low[car] - length >= 0;
+            boolean higher = high[car] + 1 + length <= board.laneLength(car);
+            if (!lower && !higher) {
+                return UNSOLVABLE;
+            }
+            if (lower && higher) {
+                continue;
+            }
+            int first = lower ? low[car] - length : offset + length;
+            int last = lower ? offset - 1 : high[car] + length;
+            for (int position = first; position <= last; position++) {
+                int blocker = owner[board.cell(car, position)];
+                if (blocker >= 0 && !forced[blocker]) {
+                    forced[blocker] = true;
+                    estimate++;
+                    pending[count] = blocker;
+                    if (board.isHorizontal(blocker) == board.isHorizontal(car)) {
+                        low[blocker] = first;
+                        high[blocker] = last;
+                    }
+                    else {
+                        low[blocker] = board.getLane(car);
+                        high[blocker] = board.getLane(car);
+                    }
+                    count++;
+                }
+            }
+        }
+        return estimate;
+    }
+}
@@ -0,0 +1,25 @@
+package puzzles.jam.solver;
+
+import puzzles.common.solver.Heuristic;
+import puzzles.jam.model.JamSearchState;
+
+/**
+ * The {@link JamHeuristic} estimate for a mutable search state, read from the offsets of its cars without packing
+ * the state into a configuration. Like {@link JamHeuristic}, an instance must not be shared between threads.
+ *
+ * @author John West (jrw2936)
+ */
+public class JamStateHeuristic implements Heuristic<JamSearchState> {
+    private final JamHeuristic heuristic = new JamHeuristic();
+
+    /**
+     * Returns the distance of 'X' to the exit plus the number of cars that are forced to move.
+     *
+     * @param state The state to estimate
+     * @return The estimated number of moves, or {@link #UNSOLVABLE}
+     */
+    @Override
+    public int estimate(JamSearchState state) {
+        return heuristic.estimate(state.getBoard(), state::offset, state.isSolution());
+    }
+}
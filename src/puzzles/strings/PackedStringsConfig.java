@@ -0,0 +1,351 @@
+package puzzles.strings;
+
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.EncodedConfiguration;
+import puzzles.common.solver.RankedConfiguration;
+import puzzles.common.solver.ReversibleConfiguration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Configuration of the Strings puzzle for words of the letters 'A' to 'Z', stored as letter indices instead of a
+ * String. Words of up to {@value #MAX_PACKED} letters are packed 5 bits per letter into a single long, which is also
+ * the state code, so neighbors are generated by adding to the long. Longer words fall back to one byte per letter.
+ * The exact number of steps left, the sum of the cyclic distances of every letter to its target, is available from
+ * {@link #distance()}.
+ * Packed words are also ranked densely, as numbers in base 26.
+ *
+ * @author John West (jrw2936@rit.edu)
+ */
+public final class PackedStringsConfig implements EncodedConfiguration, RankedConfiguration,
+        ReversibleConfiguration {
+    /** Longest word packed into a long. */
+    public static final int MAX_PACKED = Long.SIZE / 5;
+
+    /** Bits per packed letter. */
+    private static final int BITS = 5;
+
+    /** Mask of one packed letter. */
+    private static final long LETTER = (1L << BITS) - 1;
+
+    /** Number of letters on the cycle. */
+    private static final int LETTERS = 26;
+
+    private final int length;
+    private final long word;
+    private final long target;
+    private final byte[] letters;
+    private final byte[] targetLetters;
+
+    /**
+     * Constructor for a configuration with its letters either packed or in bytes.
+     *
+     * @param length Number of letters
+     * @param word Packed letters, 0 if the word is stored in bytes
+     * @param target Packed target letters, 0 if the target is stored in bytes
+     * @param letters Letters of a long word, null if packed
+     * @param targetLetters Target letters of a long word, null if packed
+     */
+    private PackedStringsConfig(int length, long word, long target, byte[] letters, byte[] targetLetters) {
+        this.length = length;
+        this.word = word;
+        this.target = target;
+        this.letters = letters;
+        this.targetLetters = targetLetters;
+    }
+
+    /**
+     * Builds a configuration from a starting and an ending word.
+     *
+     * @param start Starting word
+     * @param end Ending word
+     * @return The configuration
+     * @throws IllegalArgumentException If the words differ in length or hold anything but the letters 'A' to 'Z'
+     */
+    public static PackedStringsConfig of(String start, String end) {
+        if (!isPackable(start, end)) {
+            throw new IllegalArgumentException("Words must be of equal length and only use 'A' to 'Z': " + start +
+                    ", " + end);
+        }
+        int length = start.length();
+        if (length <= MAX_PACKED) {
+            return new PackedStringsConfig(length, pack(start), pack(end), null, null);
+        }
+        return new PackedStringsConfig(length, 0, 0, bytes(start), bytes(end));
+    }
+
+    /**
+     * Returns whether two words can be solved with packed configurations.
+     *
+     * @param start Starting word
+     * @param end Ending word
+     * @return Whether the words are of equal length and only use the letters 'A' to 'Z'
+     */
+    public static boolean isPackable(String start, String end) {
+        if (start.length() != end.length()) {
+            return false;
+        }
+        for (int i = 0; i < start.length(); i++) {
+            if (start.charAt(i) < 'A' || start.charAt(i) > 'Z' || end.charAt(i) < 'A' || end.charAt(i) > 'Z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Packs a word of at most {@value #MAX_PACKED} letters, the first letter in the lowest bits.
+     *
+     * @param word The word
+     * @return The packed letters
+     */
+    private static long pack(String word) {
+        long packed = 0;
+        for (int i = 0; i < word.length(); i++) {
+            packed |= (long) (word.charAt(i) - 'A') << (BITS * i);
+        }
+        return packed;
+    }
+
+    /**
+     * Returns the letter indices of a word.
+     *
+     * @param word The word
+     * @return One byte per letter, 0 for 'A'
+     */
+    private static byte[] bytes(String word) {
+        byte[] bytes = new byte[word.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (word.charAt(i) - 'A');
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the index of a letter of the word.
+     *
+     * @param position Position of the letter
+     * @return 0 for 'A' up to 25 for 'Z'
+     */
+    private int letter(int position) {
+        return letters == null ? (int) ((word >>> (BITS * position)) & LETTER) : letters[position];
+    }
+
+    /**
+     * Returns the index of a letter of the target word.
+     *
+     * @param position Position of the letter
+     * @return 0 for 'A' up to 25 for 'Z'
+     */
+    private int targetLetter(int position) {
+        return targetLetters == null ? (int) ((target >>> (BITS * position)) & LETTER) : targetLetters[position];
+    }
+
+    /**
+     * Returns the configuration with one letter replaced.
+     *
+     * @param position Position of the letter
+     * @param from Its current index
+     * @param to Its new index
+     * @return The neighboring configuration
+     */
+    private PackedStringsConfig with(int position, int from, int to) {
+        if (letters == null) {
+            return new PackedStringsConfig(length, word + ((long) (to - from) << (BITS * position)), target, null,
+                    null);
+        }
+        byte[] next = letters.clone();
+        next[position] = (byte) to;
+        return new PackedStringsConfig(length, 0, 0, next, targetLetters);
+    }
+
+    /**
+     * Returns the exact number of steps left: the sum over all letters of the cyclic distance to the target letter.
+     *
+     * @return Steps to the ending word
+     */
+    public int distance() {
+        int total = 0;
+        for (int i = 0; i < length; i++) {
+            int offset = Math.abs(letter(i) - targetLetter(i));
+            total += Math.min(offset, LETTERS - offset);
+        }
+        return total;
+    }
+
+    /**
+     * Returns whether the word fits in a single long.
+     *
+     * @return Whether the configuration has a state code
+     */
+    @Override
+    public boolean hasCode() {
+        return letters == null;
+    }
+
+    /**
+     * Returns the packed letters of the word.
+     *
+     * @return The state code
+     */
+    @Override
+    public long encode() {
+        return this.word;
+    }
+
+    /**
+     * Rebuilds a configuration with the same target from its packed letters.
+     *
+     * @param code A code previously returned by {@link #encode()}
+     * @return The configuration with that code
+     */
+    @Override
+    public PackedStringsConfig decode(long code) {
+        return new PackedStringsConfig(length, code, target, null, null);
+    }
+
+    /**
+     * Returns whether the word is packed, in which case it is ranked.
+     *
+     * @return Whether the configuration has a rank
+     */
+    @Override
+    public boolean hasRank() {
+        return letters == null;
+    }
+
+    /**
+     * Returns the number of words of the same length.
+     *
+     * @return 26 to the power of the length
+     */
+    @Override
+    public long rankSpace() {
+        long space = 1;
+        for (int i = 0; i < length; i++) {
+            space *= LETTERS;
+        }
+        return space;
+    }
+
+    /**
+     * Returns the word as a number in base 26, the first letter being the least significant digit.
+     *
+     * @return The rank
+     */
+    @Override
+    public long rank() {
+        long rank = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            rank = rank * LETTERS + letter(i);
+        }
+        return rank;
+    }
+
+    /**
+     * Rebuilds a configuration with the same target from its rank.
+     *
+     * @param rank A rank previously returned by {@link #rank()}
+     * @return The configuration with that rank
+     */
+    @Override
+    public PackedStringsConfig unrank(long rank) {
+        long packed = 0;
+        for (int i = 0; i < length; i++) {
+            packed |= (rank % LETTERS) << (BITS * i);
+            rank /= LETTERS;
+        }
+        return new PackedStringsConfig(length, packed, target, null, null);
+    }
+
+    /**
+     * Returns the current word.
+     *
+     * @return The current word
+     */
+    @Override
+    public String toString() {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('A' + letter(i));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Returns a hashcode of the current word.
+     *
+     * @return Hashcode of the letters
+     */
+    @Override
+    public int hashCode() {
+        return letters == null ? Long.hashCode(word * 0x9E3779B97F4A7C15L) : Arrays.hashCode(letters);
+    }
+
+    /**
+     * Determines whether two configurations have the same current and target words.
+     *
+     * @param other The other configuration
+     * @return Whether the configurations are the same
+     */
+    @Override
+    public boolean equals(Object other) {
+        boolean result = false;
+        if (other instanceof PackedStringsConfig otherConfig) {
+            result = this.length == otherConfig.length && this.word == otherConfig.word &&
+                    this.target == otherConfig.target && Arrays.equals(this.letters, otherConfig.letters) &&
+                    Arrays.equals(this.targetLetters, otherConfig.targetLetters);
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether the current word is the ending word.
+     *
+     * @return Whether the puzzle is solved
+     */
+    @Override
+    public boolean isSolution() {
+        return letters == null ? word == target : Arrays.equals(letters, targetLetters);
+    }
+
+    /**
+     * Returns the configurations one step away: every letter moved one place forwards or backwards on the cycle.
+     *
+     * @return The 2n neighbors of an n-letter word
+     */
+    @Override
+    public Collection<Configuration> getNeighbors() {
+        List<Configuration> neighbors = new ArrayList<>(2 * length);
+        for (int i = 0; i < length; i++) {
+            int letter = letter(i);
+            neighbors.add(with(i, letter, letter == LETTERS - 1 ? 0 : letter + 1));
+            neighbors.add(with(i, letter, letter == 0 ? LETTERS - 1 : letter - 1));
+        }
+        return neighbors;
+    }
+
+    /**
+     * Returns the single solved configuration, whose current word is the ending word.
+     *
+     * @return A list containing the goal configuration
+     */
+    @Override
+    public Collection<Configuration> getGoals() {
+        return List.of(new PackedStringsConfig(length, target, target, targetLetters, targetLetters));
+    }
+
+    /**
+     * Returns the configurations one step away. Every step can be undone by the opposite step, so these are the
+     * same as the neighbors.
+     *
+     * @return The neighbors
+     */
+    @Override
+    public Collection<Configuration> getPredecessors() {
+        return getNeighbors();
+    }
+}
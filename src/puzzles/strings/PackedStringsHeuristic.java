@@ -0,0 +1,23 @@
+package puzzles.strings;
+
+import puzzles.common.solver.Heuristic;
+
+/**
+ * Heuristic for packed Strings configurations: the sum over all letters of the cyclic distance to the target
+ * letter, read from the packed letters. Each step moves a single letter one place, so the estimate is exact and A*
+ * goes straight down a shortest path.
+ *
+ * @author John West (jrw2936)
+ */
+public class PackedStringsHeuristic implements Heuristic<PackedStringsConfig> {
+    /**
+     * Returns the number of single-letter steps between the current and target words.
+     *
+     * @param config The configuration to estimate
+     * @return The total cyclic letter distance
+     */
+    @Override
+    public int estimate(PackedStringsConfig config) {
+        return config.distance();
+    }
+}
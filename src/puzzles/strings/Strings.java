@@ -1,6 +1,8 @@
 package puzzles.strings;
+import puzzles.common.solver.AStarSolver;
 import puzzles.common.solver.Configuration;
-import puzzles.common.solver.Solver;
+import puzzles.common.solver.BidirectionalSolver;
+import puzzles.common.solver.SolverStats;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -13,6 +15,8 @@ public class Strings{
 
     /**
      * Drives the program to complete the Strings BFS puzzle and displays all steps, as well as the completed BFS path.
+     * Words of the letters 'A' to 'Z' are solved by A* over packed letters with the exact cyclic-distance
+     * heuristic, so long words solve in milliseconds; any other words fall back to bidirectional search.
      *
      * @param args Command line arguments
      */
@@ -23,9 +27,19 @@ public class Strings{
         else {
             String start = args[0];
             String end = args[args.length-1];
-            StringsConfig config = new StringsConfig(start, end);
             System.out.println("Start: " + start + ", End: " + end);
-            Collection<Configuration> path = Solver.solve(config);
+            SolverStats stats = new SolverStats();
+            Collection<Configuration> path;
+            if (PackedStringsConfig.isPackable(start, end)) {
+                path = new AStarSolver<>(new PackedStringsHeuristic()).solve(PackedStringsConfig.of(start, end),
+                        stats);
+                System.out.println("Explored: " + stats.getUnique());
+            }
+            else {
+                path = new BidirectionalSolver().solve(new StringsConfig(start, end), stats);
+                System.out.println("Explored: " + stats.getForwardExplored() + " forward, "
+                        + stats.getBackwardExplored() + " backward");
+            }
             if (path != null){
                 ArrayList<Configuration> finalPath = new ArrayList<>(path);
                 for (int i = 0; i < path.size(); i++){
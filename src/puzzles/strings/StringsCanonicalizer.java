@@ -0,0 +1,50 @@
+package puzzles.strings;
+
+import puzzles.common.solver.Canonicalizer;
+
+import java.util.Arrays;
+
+/**
+ * Canonicalization for the Strings puzzle. A configuration only matters through the cyclic offset of each letter
+ * from its target letter, every step changes one offset by one, and the goal is every offset at zero. Swapping the
+ * offsets of two positions, or mirroring an offset d to 26 - d, therefore maps steps to steps and the goal to itself.
+ * The representative has the offsets folded to at most 13 and sorted in ascending order.
+ *
+ * @author John West (jrw2936)
+ */
+public class StringsCanonicalizer implements Canonicalizer<StringsConfig> {
+    /** Number of letters on the cycle. */
+    private static final int LETTERS = 26;
+
+    /**
+     * Returns the configuration with the same folded offsets as the given one, in ascending order.
+     *
+     * @param config The configuration
+     * @return Its representative; configurations of mismatched length or outside 'A' to 'Z' are their own
+     */
+    @Override
+    public StringsConfig canonical(StringsConfig config) {
+        String start = config.getStart();
+        String end = config.getEnd();
+        if (start.length() != end.length()) {
+            return config;
+        }
+        int[] offsets = new int[start.length()];
+        for (int i = 0; i < offsets.length; i++) {
+            char from = start.charAt(i);
+            char to = end.charAt(i);
+            if (from < 'A' || from > 'Z' || to < 'A' || to > 'Z') {
+                return config;
+            }
+            int offset = Math.floorMod(from - to, LETTERS);
+            offsets[i] = Math.min(offset, LETTERS - offset);
+        }
+        Arrays.sort(offsets);
+        char[] canonical = new char[offsets.length];
+        for (int i = 0; i < offsets.length; i++) {
+            canonical[i] = (char) ('A' + (end.charAt(i) - 'A' + offsets[i]) % LETTERS);
+        }
+        String representative = new String(canonical);
+        return representative.equals(start) ? config : new StringsConfig(representative, end);
+    }
+}
@@ -1,6 +1,7 @@
 package puzzles.strings;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.ReversibleConfiguration;
 
 import java.util.*;
 
@@ -9,7 +10,7 @@ import java.util.*;
  *
  * @author John West (jrw2936@rit.edu)
  */
-public class StringsConfig implements Configuration {
+public class StringsConfig implements ReversibleConfiguration {
     private final String start;
     private final String end;
 
@@ -24,6 +25,24 @@ public class StringsConfig implements Configuration {
         this.end = end;
     }
 
+    /**
+     * Returns the current string value.
+     *
+     * @return The current string value.
+     */
+    public String getStart() {
+        return this.start;
+    }
+
+    /**
+     * Returns the target string value.
+     *
+     * @return The ending string value.
+     */
+    public String getEnd() {
+        return this.end;
+    }
+
     /**
      * Returns the starting string value.
      *
@@ -70,15 +89,17 @@ public class StringsConfig implements Configuration {
     }
 
     /**
-     * Returns a Hashset of valid neighbors for the given starting value of the configuration.
+     * Returns a Hashset of valid neighbors for the given starting value of the configuration. Each neighbor is built
+     * from one shared character array with a single letter changed.
      *
      * @return A HashSet of neighbors of the starting string value.
      */
     @Override
     public Collection<Configuration> getNeighbors() {
         HashSet<Configuration> neighbors = new HashSet<>();
-        for (int i = 0; i < start.length(); i++) {
-            char ch = start.charAt(i);
+        char[] chars = start.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            char ch = chars[i];
             char firstNeighbor = (char) (ch + 1);
             char secondNeighbor = (char) (ch - 1);
             if (ch == 'A') {
@@ -87,15 +108,33 @@ public class StringsConfig implements Configuration {
             if (ch == 'Z') {
                 firstNeighbor = 'A';
             }
-            if (i >= 1) {
-                neighbors.add(new StringsConfig((start.substring(0, i) + firstNeighbor + start.substring(i + 1)), end));
-                neighbors.add(new StringsConfig((start.substring(0, i) + secondNeighbor + start.substring(i + 1)), end));
-            }
-            else {
-                neighbors.add(new StringsConfig((firstNeighbor + start.substring(1)), end));
-                neighbors.add(new StringsConfig((secondNeighbor + start.substring(1)), end));
-            }
+            chars[i] = firstNeighbor;
+            neighbors.add(new StringsConfig(new String(chars), end));
+            chars[i] = secondNeighbor;
+            neighbors.add(new StringsConfig(new String(chars), end));
+            chars[i] = ch;
         }
         return neighbors;
     }
+
+    /**
+     * Returns the single solved configuration, whose starting value is the ending value.
+     *
+     * @return A list containing the goal configuration.
+     */
+    @Override
+    public Collection<Configuration> getGoals() {
+        return List.of(new StringsConfig(end, end));
+    }
+
+    /**
+     * Returns the configurations one step away. Every step can be undone by the opposite step, so these are the
+     * same as the neighbors.
+     *
+     * @return A HashSet of predecessors of the starting string value.
+     */
+    @Override
+    public Collection<Configuration> getPredecessors() {
+        return getNeighbors();
+    }
 }
@@ -0,0 +1,32 @@
+package puzzles.strings;
+
+import puzzles.common.solver.Heuristic;
+
+/**
+ * Heuristic for the Strings puzzle: the sum over all letters of the cyclic distance to the target letter. Each
+ * step moves a single letter one place, so the estimate is exact.
+ *
+ * @author John West (jrw2936)
+ */
+public class StringsHeuristic implements Heuristic<StringsConfig> {
+    /**
+     * Returns the number of single-letter steps between the current and target strings.
+     *
+     * @param config The configuration to estimate
+     * @return The total cyclic letter distance
+     */
+    @Override
+    public int estimate(StringsConfig config) {
+        String start = config.getStart();
+        String end = config.getEnd();
+        if (start.length() != end.length()) {
+            return UNSOLVABLE;
+        }
+        int total = 0;
+        for (int i = 0; i < start.length(); i++) {
+            int distance = Math.abs(start.charAt(i) - end.charAt(i)) % 26;
+            total += Math.min(distance, 26 - distance);
+        }
+        return total;
+    }
+}